@@ -0,0 +1,145 @@
+package http;
+
+import manager.Batch;
+import manager.ConcurrentTaskManager;
+import tasks.Task;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочный прогон HTTP API на локальной машине.
+ * <p>
+ * Поднимает {@link HttpTaskServer} с заполненным {@link ConcurrentTaskManager} (или бьёт в уже запущенный сервер
+ * по {@code url}), затем {@code clients} виртуальных потоков в течение {@code seconds} секунд шлют смесь запросов:
+ * 80% — {@code GET /tasks/{id}}, 10% — страница {@code GET /tasks?limit=100}, 10% — {@code POST /tasks}.
+ * В конце печатает пропускную способность, перцентили задержки и число ошибок.
+ * <pre>
+ * java -cp out http.HttpLoadTest [clients=64] [seconds=10] [tasks=100000] [url=http://localhost:8080]
+ * </pre>
+ */
+public class HttpLoadTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+    private static final int MAX_SAMPLES = 1 << 22;
+
+    public static void main(String[] args) throws Exception {
+        int clients = intArg(args, "clients", 64);
+        int seconds = intArg(args, "seconds", 10);
+        int tasks = intArg(args, "tasks", 100_000);
+        String url = stringArg(args, "url", null);
+
+        HttpTaskServer server = null;
+        if (url == null) {
+            ConcurrentTaskManager manager = new ConcurrentTaskManager();
+            Batch batch = new Batch();
+            for (int i = 0; i < tasks; i++) {
+                batch.create(new Task("Задача " + i, "Описание " + i, Duration.ofMinutes(10L), START.plusMinutes(20L * i)));
+            }
+            manager.applyBatch(batch);
+            server = new HttpTaskServer(manager, 0);
+            server.start();
+            url = "http://localhost:" + server.getPort();
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        long[] samples = new long[MAX_SAMPLES];
+        AtomicLong sampleCount = new AtomicLong();
+        LongAdder errors = new LongAdder();
+        AtomicLong nextStart = new AtomicLong(tasks);
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        String base = url;
+
+        long started = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                workers.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = nextRequest(base, random, tasks, nextStart);
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        long index = sampleCount.getAndIncrement();
+                        if (index < MAX_SAMPLES) {
+                            samples[(int) index] = System.nanoTime() - sent;
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        int recorded = (int) Math.min(sampleCount.get(), MAX_SAMPLES);
+        long[] latencies = Arrays.copyOf(samples, recorded);
+        Arrays.sort(latencies);
+        System.out.printf("клиентов: %d, запросов: %d, ошибок: %d%n", clients, sampleCount.get(), errors.sum());
+        System.out.printf("пропускная способность: %.0f запросов/с%n", sampleCount.get() * 1e9 / elapsed);
+        System.out.printf("задержка, мс: p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 1.0));
+
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private static HttpRequest nextRequest(String base, ThreadLocalRandom random, int tasks, AtomicLong nextStart) {
+        int dice = random.nextInt(10);
+        if (dice == 0) {
+            long slot = nextStart.getAndIncrement();
+            String body = "{\"title\":\"Нагрузка\",\"description\":\"POST\",\"duration\":10,\"startTime\":\""
+                    + START.plusMinutes(20L * slot) + "\"}";
+            return HttpRequest.newBuilder(URI.create(base + "/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                    .build();
+        }
+        if (dice == 1) {
+            int afterId = random.nextInt(Math.max(tasks, 1)) - 1;
+            return HttpRequest.newBuilder(URI.create(base + "/tasks?afterId=" + afterId + "&limit=100")).GET().build();
+        }
+        return HttpRequest.newBuilder(URI.create(base + "/tasks/" + random.nextInt(Math.max(tasks, 1)))).GET().build();
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        String value = stringArg(args, name, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static String stringArg(String[] args, String name, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith(name + "=")) {
+                return arg.substring(name.length() + 1);
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,61 @@
+package manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tasks.Epic;
+import tasks.Status;
+import tasks.SubTask;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static manager.TaskManagerBenchmark.START;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EpicBenchmark {
+
+    @Param({"100", "10000"})
+    int subTasks;
+
+    private InMemoryTaskManager taskManager;
+    private Epic epic;
+    private int next;
+
+    @Setup
+    public void fillEpic() {
+        taskManager = new InMemoryTaskManager();
+        epic = taskManager.create(new Epic("Эпик", "Большой эпик"));
+        for (int i = 0; i < subTasks; i++) {
+            taskManager.create(new SubTask("Подзадача " + i, "Описание", epic, Duration.ofMinutes(10L), START.plusMinutes(20L * i)));
+        }
+    }
+
+    @Benchmark
+    public SubTask updateSubTaskStatus() {
+        int index = next++ % subTasks;
+        Status status = next % 2 == 0 ? Status.DONE : Status.NEW;
+        return taskManager.update(new SubTask("Подзадача " + index, "Описание", status, epic.getId() + 1 + index,
+                Duration.ofMinutes(10L), START.plusMinutes(20L * index), epic));
+    }
+
+    @Benchmark
+    public SubTask addAndRemoveSubTask() {
+        SubTask created = taskManager.create(new SubTask("Новая", "Описание", epic, Duration.ofMinutes(10L), START.minusMinutes(20L)));
+        taskManager.clearSubTaskById(created.getId());
+        return created;
+    }
+}
@@ -0,0 +1,59 @@
+package manager;
+
+import history.HistoryManager;
+import history.InMemoryHistoryManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tasks.Status;
+import tasks.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static manager.TaskManagerBenchmark.START;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int historySize;
+
+    private HistoryManager historyManager;
+    private Task[] tasks;
+    private int next;
+
+    @Setup
+    public void fillHistory() {
+        historyManager = new InMemoryHistoryManager();
+        tasks = new Task[historySize];
+        for (int i = 0; i < historySize; i++) {
+            tasks[i] = new Task("Задача " + i, "Описание", Status.NEW, i, Duration.ofMinutes(10L), START.plusMinutes(20L * i));
+            historyManager.add(tasks[i]);
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Benchmark
+    public void addViewed() {
+        historyManager.add(tasks[next++ % historySize]);
+    }
+}
@@ -0,0 +1,77 @@
+package manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tasks.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static manager.TaskManagerBenchmark.START;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersistenceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    @Param({"CSV", "BINARY", "JSON"})
+    SaveFormat format;
+
+    private FileBackedTaskManager source;
+    private File saved;
+    private File target;
+
+    @Setup(Level.Trial)
+    public void fillBoard() throws IOException {
+        source = new FileBackedTaskManager(File.createTempFile("bench-source", ".csv"));
+        Batch batch = new Batch();
+        for (int i = 0; i < rows; i++) {
+            batch.create(new Task("Задача " + i, "Описание " + i, Duration.ofMinutes(10L), START.plusMinutes(20L * i)));
+        }
+        source.applyBatch(batch);
+        saved = File.createTempFile("bench-saved", ".dat");
+        source.saveAs(saved, format);
+        target = File.createTempFile("bench-target", ".dat");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() {
+        saved.delete();
+        target.delete();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return source.snapshot(format);
+    }
+
+    @Benchmark
+    public File save() {
+        source.saveAs(target, format);
+        return target;
+    }
+
+    @Benchmark
+    public FileBackedTaskManager load() {
+        return new FileBackedTaskManager(saved, format);
+    }
+}
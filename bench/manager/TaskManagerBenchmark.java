@@ -0,0 +1,68 @@
+package manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tasks.Status;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskManagerBenchmark {
+    static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private InMemoryTaskManager taskManager;
+    private int next;
+
+    @Setup
+    public void fillBoard() {
+        taskManager = new InMemoryTaskManager();
+        for (int i = 0; i < size; i++) {
+            taskManager.create(new Task("Задача " + i, "Описание " + i, Duration.ofMinutes(10L), START.plusMinutes(20L * i)));
+        }
+    }
+
+    @Benchmark
+    public Task createWithOverlapValidation() {
+        Task created = taskManager.create(new Task("Новая", "Описание", Duration.ofMinutes(10L), START.minusMinutes(20L)));
+        taskManager.clearTaskById(created.getId());
+        return created;
+    }
+
+    @Benchmark
+    public Task updateWithOverlapValidation() {
+        int id = next++ % size;
+        long shift = next % 2 == 0 ? 0 : 10;
+        return taskManager.update(new Task("Задача " + id, "Описание", Status.IN_PROGRESS, id, Duration.ofMinutes(10L), START.plusMinutes(20L * id + shift)));
+    }
+
+    @Benchmark
+    public ArrayList<Task> getPrioritizedTasks() {
+        return taskManager.getPrioritizedTasks();
+    }
+
+    @Benchmark
+    public Task getTaskById() {
+        return taskManager.getTaskById(next++ % size);
+    }
+}
@@ -0,0 +1,56 @@
+#!/bin/sh
+# Собирает src и bench вместе с процессором аннотаций JMH и запускает бенчмарки.
+# Зависимости один раз скачиваются из Maven Central в bench/lib и сверяются с SHA-1, записанными ниже,
+# так что подменённый на зеркале jar вместе с его .sha1 не пройдёт проверку.
+#
+#   bench/run.sh                                         все JMH-бенчмарки
+#   bench/run.sh PersistenceBenchmark -p rows=100000     аргументы передаются в JMH как есть
+#   bench/run.sh http clients=64 seconds=10              нагрузочный прогон HTTP API без JMH
+#
+# Нужен JDK 21+. Другое зеркало Maven можно задать через MAVEN_REPO.
+set -eu
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+LIB="$ROOT/bench/lib"
+OUT="$ROOT/out/bench"
+REPO=${MAVEN_REPO:-https://repo1.maven.org/maven2}
+
+fetch() {
+    group=$1
+    artifact=$2
+    version=$3
+    expected=$4
+    jar="$LIB/$artifact-$version.jar"
+    if [ -f "$jar" ]; then
+        return
+    fi
+    url="$REPO/$(echo "$group" | tr . /)/$artifact/$version/$artifact-$version.jar"
+    echo "Скачиваю $url"
+    curl -fsSL -o "$jar.part" "$url"
+    actual=$(sha1sum "$jar.part" | cut -c1-40)
+    if [ "$expected" != "$actual" ]; then
+        rm -f "$jar.part"
+        echo "Контрольная сумма $artifact-$version.jar не совпадает" >&2
+        exit 1
+    fi
+    mv "$jar.part" "$jar"
+}
+
+mkdir -p "$LIB"
+fetch org.openjdk.jmh jmh-core 1.37 896f27e49105b35ea1964319c83d12082e7a79ef
+fetch org.openjdk.jmh jmh-generator-annprocess 1.37 da93888682df163144edf9b13d2b78e54166063a
+fetch net.sf.jopt-simple jopt-simple 5.0.4 4fdac2fbe92dfad86aa6e9301736f6b4342a3f5c
+fetch org.apache.commons commons-math3 3.6.1 e4ba98f1d4b3c80ec46392f25e094a6a2e58fcbf
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+find "$ROOT/src" "$ROOT/bench" -name '*.java' > "$OUT/sources.txt"
+# В -processorpath javac не раскрывает "*", поэтому путь собирается из файлов явно
+processors=$(find "$LIB" -name '*.jar' | tr '\n' ':')
+javac -encoding UTF-8 -d "$OUT" -cp "$LIB/*" -processorpath "$processors" @"$OUT/sources.txt"
+
+if [ "${1:-}" = "http" ]; then
+    shift
+    exec java -cp "$OUT" http.HttpLoadTest "$@"
+fi
+exec java -cp "$OUT:$LIB/*" manager.BenchmarkRunner "$@"
@@ -0,0 +1,7 @@
+package exceptions;
+
+public class JsonParseException extends RuntimeException {
+    public JsonParseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package exceptions;
+
+public class ManagerBatchException extends RuntimeException {
+    public ManagerBatchException(String message) {
+        super(message);
+    }
+}
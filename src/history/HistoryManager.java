@@ -9,5 +9,17 @@ public interface HistoryManager {
 
     ArrayList<Task> getHistory();
 
+    /**
+     * Возвращает не более {@code limit} просмотров, пропустив первые {@code offset}.
+     */
+    ArrayList<Task> getHistory(int offset, int limit);
+
     void remove(int id);
+
+    /**
+     * Удаляет из истории задачи с указанными id за один проход по ним.
+     */
+    default void removeAll(Iterable<Integer> ids) {
+        ids.forEach(this::remove);
+    }
 }
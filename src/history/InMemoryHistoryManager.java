@@ -3,13 +3,57 @@ package history;
 import tasks.Task;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-
+import java.util.Collection;
+import java.util.function.IntFunction;
+
+/**
+ * История просмотров в порядке последнего просмотра.
+ * <p>
+ * Ёмкость ограничивается числом записей и примерной оценкой занимаемой памяти; при переполнении вытесняются
+ * давно не просмотренные задачи (LRU). Если задан {@code resolver}, хранятся только id, а актуальное состояние
+ * задачи берётся из него при чтении; удалённые задачи из такой истории пропадают сами.
+ */
 public class InMemoryHistoryManager implements HistoryManager {
-
-    private final HashMap<Integer, Node> mapOfHistory = new HashMap<>();
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+    private static final long NODE_BYTES = 64;
+    private static final long TASK_BYTES = 96;
+    private static final long STRING_BYTES = 24;
+
+    private final IntObjectMap<Node> mapOfHistory = new IntObjectMap<>();
+    private final int capacity;
+    private final long maxBytes;
+    private final IntFunction<Task> resolver;
     private Node lastNode;
     private Node firstNode;
+    private long bytes;
+
+    public InMemoryHistoryManager() {
+        this(UNBOUNDED);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        this(capacity, Long.MAX_VALUE);
+    }
+
+    public InMemoryHistoryManager(int capacity, long maxBytes) {
+        this(capacity, maxBytes, null);
+    }
+
+    /**
+     * История, которая хранит только id и читает задачи через {@code resolver}.
+     */
+    public InMemoryHistoryManager(int capacity, IntFunction<Task> resolver) {
+        this(capacity, Long.MAX_VALUE, resolver);
+    }
+
+    private InMemoryHistoryManager(int capacity, long maxBytes, IntFunction<Task> resolver) {
+        if (capacity <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("Ёмкость истории должна быть положительной");
+        }
+        this.capacity = capacity;
+        this.maxBytes = maxBytes;
+        this.resolver = resolver;
+    }
 
     @Override
     public void add(Task task) {
@@ -19,36 +63,93 @@ public class InMemoryHistoryManager implements HistoryManager {
 
         remove(task.getId());
 
-        Node newNode = new Node(task.copy());
+        Node newNode = resolver == null ? new Node(task.getId(), task.snapshot()) : new Node(task.getId(), null);
         linkLast(newNode);
         mapOfHistory.put(task.getId(), newNode);
+        bytes += newNode.bytes;
+        while (mapOfHistory.size() > capacity || bytes > maxBytes) {
+            remove(firstNode.id);
+        }
     }
 
     @Override
     public ArrayList<Task> getHistory() {
-        return new ArrayList<>(getTasks());
+        return getHistory(0, Integer.MAX_VALUE);
     }
 
     @Override
-    public void remove(int id) {
-        if (mapOfHistory.containsKey(id)) {
-            Node node = mapOfHistory.get(id);
-            if (node.prev != null) {
-                node.prev.next = node.next;
-            } else {
-                firstNode = node.next;
+    public ArrayList<Task> getHistory(int offset, int limit) {
+        ArrayList<Task> result = new ArrayList<>(Math.min(limit, mapOfHistory.size()));
+        Node node = firstNode;
+        int skipped = 0;
+        while (node != null && result.size() < limit) {
+            Task task = resolve(node);
+            if (task != null && skipped++ >= offset) {
+                result.add(task);
             }
+            node = node.next;
+        }
+        return result;
+    }
 
-            if (node.next != null) {
-                node.next.prev = node.prev;
-            } else {
-                lastNode = node.prev;
-            }
+    @Override
+    public void remove(int id) {
+        Node node = mapOfHistory.remove(id);
+        if (node == null) {
+            return;
+        }
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            firstNode = node.next;
+        }
 
-            mapOfHistory.remove(id);
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            lastNode = node.prev;
+        }
+        bytes -= node.bytes;
+    }
+
+    /**
+     * Обходит меньшее из двух: удаляемые id или саму историю, если она короче набора id и тот умеет
+     * быстро проверять вхождение. Массовая очистка менеджера стоит O(min(k, размер истории)).
+     */
+    @Override
+    public void removeAll(Iterable<Integer> ids) {
+        if (ids instanceof Collection<Integer> collection && collection.size() > mapOfHistory.size()) {
+            Node node = firstNode;
+            while (node != null) {
+                Node next = node.next;
+                if (collection.contains(node.id)) {
+                    remove(node.id);
+                }
+                node = next;
+            }
+            return;
+        }
+        for (Integer id : ids) {
+            remove(id);
         }
     }
 
+    public int size() {
+        return mapOfHistory.size();
+    }
+
+    /**
+     * Примерная оценка памяти под записи истории. Снимки задач обычно разделяются с менеджером,
+     * так что это оценка сверху.
+     */
+    public long getEstimatedBytes() {
+        return bytes;
+    }
+
+    private Task resolve(Node node) {
+        return resolver == null ? node.task : resolver.apply(node.id);
+    }
+
     private void linkLast(Node node) {
         if (lastNode == null) {
             firstNode = node;
@@ -62,24 +163,28 @@ public class InMemoryHistoryManager implements HistoryManager {
 
     }
 
-    private ArrayList<Task> getTasks() {
-        Node node = firstNode;
-        ArrayList<Task> result = new ArrayList<>();
-        while (node != null) {
-            result.add(node.task.copy());
-            node = node.next;
+    private static long estimate(Task task) {
+        if (task == null) {
+            return NODE_BYTES;
         }
+        return NODE_BYTES + TASK_BYTES + estimate(task.getTitle()) + estimate(task.getDescription());
+    }
 
-        return result;
+    private static long estimate(String value) {
+        return value == null ? 0 : STRING_BYTES + 2L * value.length();
     }
 
     private static class Node {
+        private final int id;
         private final Task task;
+        private final long bytes;
         private Node prev;
         private Node next;
 
-        public Node(Task task) {
+        public Node(int id, Task task) {
+            this.id = id;
             this.task = task;
+            this.bytes = estimate(task);
         }
     }
 
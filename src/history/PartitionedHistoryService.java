@@ -0,0 +1,195 @@
+package history;
+
+import tasks.Task;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * Истории просмотров отдельных пользователей поверх одного общего хранилища задач.
+ * <p>
+ * Раздел пользователя — кольцевой буфер из {@code int} id на {@code capacity} записей; сами задачи читаются через
+ * {@code resolver}, поэтому в разделах нет ни копий, ни ссылок на задачи, а удалённые задачи просто пропускаются.
+ * Повторный просмотр переносит id в конец: это сдвиг внутри буфера, O(capacity), что дёшево для типичных
+ * размеров истории в десятки записей.
+ * <p>
+ * Разделы защищены полосами блокировок по хешу пользователя: пользователи из разных полос не конкурируют,
+ * а число объектов блокировок не растёт с числом пользователей.
+ */
+public class PartitionedHistoryService {
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ConcurrentHashMap<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+    private final int capacity;
+    private final IntFunction<Task> resolver;
+
+    public PartitionedHistoryService(int capacity, IntFunction<Task> resolver) {
+        this(capacity, resolver, DEFAULT_STRIPES);
+    }
+
+    public PartitionedHistoryService(int capacity, IntFunction<Task> resolver, int stripes) {
+        if (capacity <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("Ёмкость истории и число блокировок должны быть положительными");
+        }
+        this.capacity = capacity;
+        this.resolver = resolver;
+        int stripesCount = Integer.highestOneBit(stripes);
+        this.stripes = new ReentrantLock[stripesCount < stripes ? stripesCount << 1 : stripesCount];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public void add(String userId, Task task) {
+        if (task != null) {
+            add(userId, task.getId());
+        }
+    }
+
+    public void add(String userId, int taskId) {
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        try {
+            partitions.computeIfAbsent(userId, id -> new Partition(capacity)).add(taskId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает не более {@code limit} последних просмотренных пользователем задач, начиная с самой свежей.
+     */
+    public ArrayList<Task> getLast(String userId, int limit) {
+        Partition partition = partitions.get(userId);
+        if (partition == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+        int[] ids;
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        try {
+            ids = partition.newestFirst();
+        } finally {
+            lock.unlock();
+        }
+        ArrayList<Task> result = new ArrayList<>(Math.min(limit, ids.length));
+        for (int i = 0; i < ids.length && result.size() < limit; i++) {
+            Task task = resolver.apply(ids[i]);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    public void remove(String userId, int taskId) {
+        Partition partition = partitions.get(userId);
+        if (partition == null) {
+            return;
+        }
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        try {
+            partition.remove(taskId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void removeUser(String userId) {
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        try {
+            partitions.remove(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getUsersCount() {
+        return partitions.size();
+    }
+
+    /**
+     * Представляет историю одного пользователя как {@link HistoryManager}.
+     */
+    public HistoryManager forUser(String userId) {
+        return new HistoryManager() {
+            @Override
+            public void add(Task task) {
+                PartitionedHistoryService.this.add(userId, task);
+            }
+
+            @Override
+            public ArrayList<Task> getHistory() {
+                return getHistory(0, capacity);
+            }
+
+            @Override
+            public ArrayList<Task> getHistory(int offset, int limit) {
+                ArrayList<Task> newestFirst = getLast(userId, capacity);
+                ArrayList<Task> result = new ArrayList<>();
+                for (int i = newestFirst.size() - 1 - Math.max(offset, 0); i >= 0 && result.size() < limit; i--) {
+                    result.add(newestFirst.get(i));
+                }
+                return result;
+            }
+
+            @Override
+            public void remove(int id) {
+                PartitionedHistoryService.this.remove(userId, id);
+            }
+        };
+    }
+
+    private ReentrantLock stripe(String userId) {
+        int h = userId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Кольцевой буфер id: {@code head} — самая старая запись, {@code size} записей идут за ней по кругу.
+     */
+    private static class Partition {
+        private final int[] ids;
+        private int head;
+        private int size;
+
+        Partition(int capacity) {
+            this.ids = new int[capacity];
+        }
+
+        void add(int id) {
+            remove(id);
+            if (size == ids.length) {
+                head = (head + 1) % ids.length;
+                size--;
+            }
+            ids[(head + size) % ids.length] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[(head + i) % ids.length] == id) {
+                    for (int j = i; j < size - 1; j++) {
+                        ids[(head + j) % ids.length] = ids[(head + j + 1) % ids.length];
+                    }
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        int[] newestFirst() {
+            int[] result = new int[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = ids[(head + size - 1 - i) % ids.length];
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package history;
+
+import tasks.Task;
+
+import java.util.ArrayList;
+
+public class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+
+    public SynchronizedHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        delegate.add(task);
+    }
+
+    @Override
+    public synchronized ArrayList<Task> getHistory() {
+        return delegate.getHistory();
+    }
+
+    @Override
+    public synchronized ArrayList<Task> getHistory(int offset, int limit) {
+        return delegate.getHistory(offset, limit);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        delegate.remove(id);
+    }
+
+    @Override
+    public synchronized void removeAll(Iterable<Integer> ids) {
+        delegate.removeAll(ids);
+    }
+}
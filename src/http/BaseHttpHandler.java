@@ -0,0 +1,128 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import exceptions.JsonParseException;
+import exceptions.ManagerTimeCrossingException;
+import json.JsonWriter;
+import manager.TaskManager;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Общая часть обработчиков: разбор пути и параметров, ответы в JSON и перевод исключений менеджера
+ * в коды HTTP. Тело ответа пишется потоково, с chunked-кодированием, так что длинный список не собирается
+ * в памяти перед отправкой.
+ */
+abstract class BaseHttpHandler implements HttpHandler {
+    protected static final String JSON = "application/json; charset=utf-8";
+
+    protected final TaskManager manager;
+
+    protected BaseHttpHandler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                route(exchange, exchange.getRequestMethod(), segments(exchange));
+            } catch (NotFoundException e) {
+                sendError(exchange, 404, e.getMessage());
+            } catch (ManagerTimeCrossingException e) {
+                sendError(exchange, 406, e.getMessage());
+            } catch (JsonParseException | IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                sendError(exchange, 500, e.toString());
+            }
+        }
+    }
+
+    /**
+     * Обрабатывает запрос. {@code path} — сегменты пути без пустых, например {@code ["tasks", "3"]}.
+     */
+    protected abstract void route(HttpExchange exchange, String method, String[] path) throws IOException;
+
+    protected void sendJson(HttpExchange exchange, int code, JsonBody body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(code, 0);
+        JsonWriter writer = new JsonWriter(exchange.getResponseBody());
+        body.write(writer);
+        writer.flush();
+    }
+
+    protected void sendEmpty(HttpExchange exchange, int code) throws IOException {
+        exchange.sendResponseHeaders(code, -1);
+    }
+
+    protected void sendMethodNotAllowed(HttpExchange exchange) throws IOException {
+        sendError(exchange, 405, "Метод " + exchange.getRequestMethod() + " не поддерживается для "
+                + exchange.getRequestURI().getPath());
+    }
+
+    /**
+     * Если заголовки уже ушли, например при ошибке посреди потокового ответа, код поменять нельзя:
+     * соединение просто закрывается, и клиент получит оборванный ответ.
+     */
+    private void sendError(HttpExchange exchange, int code, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            return;
+        }
+        sendJson(exchange, code, writer -> writer.beginObject().name("error").value(message).endObject());
+    }
+
+    protected static int parseId(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new NotFoundException("Некорректный id: " + value);
+        }
+    }
+
+    protected static Map<String, String> query(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getRawQuery();
+        Map<String, String> result = new HashMap<>();
+        if (query == null) {
+            return result;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                result.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+            }
+        }
+        return result;
+    }
+
+    protected static int intParam(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть целым числом: " + value);
+        }
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String[] segments(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        return path.replaceAll("^/+|/+$", "").split("/+");
+    }
+
+    @FunctionalInterface
+    protected interface JsonBody {
+        void write(JsonWriter writer) throws IOException;
+    }
+}
@@ -0,0 +1,129 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import json.JsonReader;
+import json.TaskJson;
+import manager.TaskManager;
+import tasks.Epic;
+import tasks.Task;
+import tasks.TaskType;
+import tasks.TaskUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Обработчик коллекции задач одного типа:
+ * <ul>
+ *     <li>{@code GET /tasks} — все задачи, потоком; с {@code ?limit=} — страница после {@code afterId};</li>
+ *     <li>{@code GET /tasks/{id}} — задача или 404;</li>
+ *     <li>{@code POST /tasks} — создание (201), если в теле нет id, иначе обновление (200 или 404);</li>
+ *     <li>{@code DELETE /tasks/{id}} и {@code DELETE /tasks} — удаление одной или всех задач (204).</li>
+ * </ul>
+ * Пересечение по времени отдаётся как 406.
+ */
+abstract class CrudHandler<T extends Task> extends BaseHttpHandler {
+    private final TaskType type;
+
+    protected CrudHandler(TaskManager manager, TaskType type) {
+        super(manager);
+        this.type = type;
+    }
+
+    @Override
+    protected void route(HttpExchange exchange, String method, String[] path) throws IOException {
+        switch (path.length) {
+            case 1 -> routeCollection(exchange, method);
+            case 2 -> routeItem(exchange, method, parseId(path[1]));
+            default -> routeNested(exchange, method, path);
+        }
+    }
+
+    protected void routeNested(HttpExchange exchange, String method, String[] path) throws IOException {
+        throw new NotFoundException("Нет такого ресурса: " + exchange.getRequestURI().getPath());
+    }
+
+    private void routeCollection(HttpExchange exchange, String method) throws IOException {
+        switch (method) {
+            case "GET" -> {
+                Map<String, String> query = query(exchange);
+                if (query.containsKey("limit")) {
+                    ArrayList<T> page = page(intParam(query, "afterId", -1), intParam(query, "limit", 0));
+                    sendJson(exchange, 200, writer -> TaskJson.writeArray(writer, page.iterator()));
+                } else {
+                    try (Stream<T> tasks = stream()) {
+                        Iterator<T> iterator = tasks.iterator();
+                        sendJson(exchange, 200, writer -> TaskJson.writeArray(writer, iterator));
+                    }
+                }
+            }
+            case "POST" -> save(exchange);
+            case "DELETE" -> {
+                clear();
+                sendEmpty(exchange, 204);
+            }
+            default -> sendMethodNotAllowed(exchange);
+        }
+    }
+
+    private void routeItem(HttpExchange exchange, String method, int id) throws IOException {
+        switch (method) {
+            case "GET" -> {
+                T task = get(id);
+                if (task == null) {
+                    throw new NotFoundException(type + " с id " + id + " не найдена");
+                }
+                sendJson(exchange, 200, writer -> TaskJson.write(writer, task));
+            }
+            case "DELETE" -> {
+                delete(id);
+                sendEmpty(exchange, 204);
+            }
+            default -> sendMethodNotAllowed(exchange);
+        }
+    }
+
+    private void save(HttpExchange exchange) throws IOException {
+        Task parsed = TaskJson.read(new JsonReader(exchange.getRequestBody()), type, this::findEpic);
+        if (TaskUtils.typeOf(parsed) != type) {
+            throw new IllegalArgumentException("Ожидалась задача типа " + type + ", получена " + TaskUtils.typeOf(parsed));
+        }
+        @SuppressWarnings("unchecked")
+        T task = (T) parsed;
+        boolean creating = task.getId() == TaskJson.NO_ID;
+        T saved = creating ? create(task) : update(task);
+        if (saved == null) {
+            throw new NotFoundException(type + " с id " + task.getId() + " не найдена");
+        }
+        sendJson(exchange, creating ? 201 : 200, writer -> TaskJson.write(writer, saved));
+    }
+
+    /**
+     * Эпик для подзадачи из тела запроса. Ищется через страницу, а не {@code getEpicById}, чтобы
+     * не записывать в историю просмотр, которого не было.
+     */
+    private Epic findEpic(int id) {
+        ArrayList<Epic> page = id < 0 ? new ArrayList<>() : manager.getEpicsPage(id - 1, 1);
+        if (page.isEmpty() || page.getFirst().getId() != id) {
+            throw new NotFoundException("Эпик с id " + id + " не найден");
+        }
+        return page.getFirst();
+    }
+
+    protected abstract Stream<T> stream();
+
+    protected abstract ArrayList<T> page(int afterId, int limit);
+
+    protected abstract T get(int id);
+
+    protected abstract T create(T task);
+
+    protected abstract T update(T task);
+
+    protected abstract void delete(int id);
+
+    protected abstract void clear();
+}
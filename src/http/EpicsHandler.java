@@ -0,0 +1,75 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import json.TaskJson;
+import manager.TaskManager;
+import tasks.Epic;
+import tasks.SubTask;
+import tasks.TaskType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Эпики и вдобавок {@code GET /epics/{id}/subtasks} — подзадачи эпика.
+ */
+class EpicsHandler extends CrudHandler<Epic> {
+    EpicsHandler(TaskManager manager) {
+        super(manager, TaskType.EPIC);
+    }
+
+    @Override
+    protected void routeNested(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length != 3 || !path[2].equals("subtasks")) {
+            super.routeNested(exchange, method, path);
+            return;
+        }
+        if (!method.equals("GET")) {
+            sendMethodNotAllowed(exchange);
+            return;
+        }
+        int id = parseId(path[1]);
+        Epic epic = manager.getEpicById(id);
+        if (epic == null) {
+            throw new NotFoundException("Эпик с id " + id + " не найден");
+        }
+        ArrayList<SubTask> subTasks = manager.getSubTasksByEpic(epic);
+        sendJson(exchange, 200, writer -> TaskJson.writeArray(writer, subTasks.iterator()));
+    }
+
+    @Override
+    protected Stream<Epic> stream() {
+        return manager.streamEpics();
+    }
+
+    @Override
+    protected ArrayList<Epic> page(int afterId, int limit) {
+        return manager.getEpicsPage(afterId, limit);
+    }
+
+    @Override
+    protected Epic get(int id) {
+        return manager.getEpicById(id);
+    }
+
+    @Override
+    protected Epic create(Epic epic) {
+        return manager.create(epic);
+    }
+
+    @Override
+    protected Epic update(Epic epic) {
+        return manager.update(epic);
+    }
+
+    @Override
+    protected void delete(int id) {
+        manager.clearEpicById(id);
+    }
+
+    @Override
+    protected void clear() {
+        manager.clearEpics();
+    }
+}
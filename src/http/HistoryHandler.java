@@ -0,0 +1,33 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import json.TaskJson;
+import manager.TaskManager;
+import tasks.Task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * {@code GET /history} — история просмотров, с {@code ?offset=&limit=} — её часть.
+ */
+class HistoryHandler extends BaseHttpHandler {
+    HistoryHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    protected void route(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length != 1) {
+            throw new NotFoundException("Нет такого ресурса: " + exchange.getRequestURI().getPath());
+        }
+        if (!method.equals("GET")) {
+            sendMethodNotAllowed(exchange);
+            return;
+        }
+        Map<String, String> query = query(exchange);
+        ArrayList<Task> history = manager.getHistory(intParam(query, "offset", 0), intParam(query, "limit", Integer.MAX_VALUE));
+        sendJson(exchange, 200, writer -> TaskJson.writeArray(writer, history.iterator()));
+    }
+}
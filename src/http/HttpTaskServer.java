@@ -0,0 +1,67 @@
+package http;
+
+import com.sun.net.httpserver.HttpServer;
+import manager.Managers;
+import manager.TaskManager;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP API поверх {@link TaskManager} на встроенном {@code com.sun.net.httpserver}.
+ * <p>
+ * Каждый запрос обрабатывается в своём виртуальном потоке, поэтому запросы, ждущие сети или диска,
+ * не занимают потоки платформы. Запросы идут к менеджеру параллельно, так что менеджер должен быть
+ * потокобезопасным, например {@link manager.ConcurrentTaskManager}.
+ * <p>
+ * Ресурсы: {@code /tasks}, {@code /subtasks}, {@code /epics}, {@code /epics/{id}/subtasks},
+ * {@code /history}, {@code /prioritized}. Тела запросов и ответов — JSON в формате {@link json.TaskJson}.
+ */
+public class HttpTaskServer {
+    public static final int PORT = 8080;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, PORT);
+    }
+
+    /**
+     * Сервер на порту {@code port}; с портом 0 система выберет свободный, его вернёт {@link #getPort()}.
+     */
+    public HttpTaskServer(TaskManager manager, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        server.createContext("/tasks", new TasksHandler(manager));
+        server.createContext("/subtasks", new SubTasksHandler(manager));
+        server.createContext("/epics", new EpicsHandler(manager));
+        server.createContext("/history", new HistoryHandler(manager));
+        server.createContext("/prioritized", new PrioritizedHandler(manager));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Останавливает приём запросов и даёт начатым до {@code delaySeconds} секунд на завершение.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : PORT;
+        HttpTaskServer server = new HttpTaskServer(Managers.getConcurrent(), port);
+        server.start();
+        System.out.println("Сервер запущен на порту " + server.getPort());
+    }
+}
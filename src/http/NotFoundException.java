@@ -0,0 +1,7 @@
+package http;
+
+class NotFoundException extends RuntimeException {
+    NotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,76 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import json.TaskJson;
+import manager.TaskManager;
+import tasks.Task;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * {@code GET /prioritized} — задачи по времени начала, потоком; с {@code ?from=&limit=} — первая страница,
+ * начиная с момента {@code from} в ISO-8601, с {@code ?afterStart=&afterEnd=&afterId=&limit=} — следующая после
+ * позиции последней задачи предыдущей страницы: её времени начала, времени окончания и id;
+ * с {@code ?from=&to=} — задачи, пересекающиеся с окном календаря.
+ */
+class PrioritizedHandler extends BaseHttpHandler {
+    PrioritizedHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    protected void route(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length != 1) {
+            throw new NotFoundException("Нет такого ресурса: " + exchange.getRequestURI().getPath());
+        }
+        if (!method.equals("GET")) {
+            sendMethodNotAllowed(exchange);
+            return;
+        }
+        Map<String, String> query = query(exchange);
+        if (query.containsKey("to")) {
+            ArrayList<Task> window = manager.getCrossingTasks(parseTime("from", query.get("from"), LocalDateTime.MIN),
+                    parseTime("to", query.get("to"), LocalDateTime.MAX));
+            sendJson(exchange, 200, writer -> TaskJson.writeArray(writer, window.iterator()));
+            return;
+        }
+        if (query.containsKey("limit")) {
+            int limit = intParam(query, "limit", 0);
+            ArrayList<Task> page = query.containsKey("afterId")
+                    ? manager.getPrioritizedTasksAfter(requiredTime(query, "afterStart"), requiredTime(query, "afterEnd"),
+                    intParam(query, "afterId", -1), limit)
+                    : manager.getPrioritizedTasks(parseTime("from", query.get("from"), LocalDateTime.MIN), limit);
+            sendJson(exchange, 200, writer -> TaskJson.writeArray(writer, page.iterator()));
+            return;
+        }
+        try (Stream<Task> tasks = manager.streamPrioritizedTasks()) {
+            Iterator<Task> iterator = tasks.iterator();
+            sendJson(exchange, 200, writer -> TaskJson.writeArray(writer, iterator));
+        }
+    }
+
+    private static LocalDateTime requiredTime(Map<String, String> query, String name) {
+        LocalDateTime time = parseTime(name, query.get(name), null);
+        if (time == null) {
+            throw new IllegalArgumentException("Не задан параметр " + name);
+        }
+        return time;
+    }
+
+    private static LocalDateTime parseTime(String name, String value, LocalDateTime defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть датой в формате ISO-8601: " + value);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package http;
+
+import manager.TaskManager;
+import tasks.SubTask;
+import tasks.TaskType;
+
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+class SubTasksHandler extends CrudHandler<SubTask> {
+    SubTasksHandler(TaskManager manager) {
+        super(manager, TaskType.SUBTASK);
+    }
+
+    @Override
+    protected Stream<SubTask> stream() {
+        return manager.streamSubTasks();
+    }
+
+    @Override
+    protected ArrayList<SubTask> page(int afterId, int limit) {
+        return manager.getSubTasksPage(afterId, limit);
+    }
+
+    @Override
+    protected SubTask get(int id) {
+        return manager.getSubTaskById(id);
+    }
+
+    @Override
+    protected SubTask create(SubTask subTask) {
+        return manager.create(subTask);
+    }
+
+    @Override
+    protected SubTask update(SubTask subTask) {
+        return manager.update(subTask);
+    }
+
+    @Override
+    protected void delete(int id) {
+        manager.clearSubTaskById(id);
+    }
+
+    @Override
+    protected void clear() {
+        manager.clearSubTasks();
+    }
+}
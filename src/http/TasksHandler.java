@@ -0,0 +1,49 @@
+package http;
+
+import manager.TaskManager;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+class TasksHandler extends CrudHandler<Task> {
+    TasksHandler(TaskManager manager) {
+        super(manager, TaskType.TASK);
+    }
+
+    @Override
+    protected Stream<Task> stream() {
+        return manager.streamTasks();
+    }
+
+    @Override
+    protected ArrayList<Task> page(int afterId, int limit) {
+        return manager.getTasksPage(afterId, limit);
+    }
+
+    @Override
+    protected Task get(int id) {
+        return manager.getTaskById(id);
+    }
+
+    @Override
+    protected Task create(Task task) {
+        return manager.create(task);
+    }
+
+    @Override
+    protected Task update(Task task) {
+        return manager.update(task);
+    }
+
+    @Override
+    protected void delete(int id) {
+        manager.clearTaskById(id);
+    }
+
+    @Override
+    protected void clear() {
+        manager.clearTasks();
+    }
+}
@@ -0,0 +1,416 @@
+package json;
+
+import exceptions.JsonParseException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Потоковый разбор JSON из {@link InputStream} за один проход.
+ * <p>
+ * Вызывающий код идёт по документу сам: {@link #beginObject()}, затем пары {@link #hasNext()} /
+ * {@link #nextName()} и значение, затем {@link #endObject()}. Вход читается блоками в буфер, строки
+ * собираются прямо из байт UTF-8, дерево документа не строится. Ошибки разметки бросаются как
+ * {@link JsonParseException} с позицией в байтах.
+ */
+public class JsonReader implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long consumed;
+    private byte[] text = new byte[64];
+    private int textLength;
+    private boolean[] hasElements = new boolean[8];
+    private int depth;
+    private boolean ready;
+    private boolean afterName;
+
+    public JsonReader(InputStream in) {
+        this.in = in;
+    }
+
+    public void beginObject() throws IOException {
+        beforeValue();
+        open('{');
+    }
+
+    public void endObject() throws IOException {
+        close('}');
+    }
+
+    public void beginArray() throws IOException {
+        beforeValue();
+        open('[');
+    }
+
+    public void endArray() throws IOException {
+        close(']');
+    }
+
+    /**
+     * Есть ли в текущем объекте или массиве ещё элемент. Разделяющую запятую метод забирает сам.
+     */
+    public boolean hasNext() throws IOException {
+        if (ready) {
+            return true;
+        }
+        int c = skipWhitespace();
+        if (c == '}' || c == ']') {
+            return false;
+        }
+        if (c == -1) {
+            throw error("неожиданный конец документа");
+        }
+        if (depth > 0) {
+            if (hasElements[depth - 1]) {
+                expect(',');
+            }
+            hasElements[depth - 1] = true;
+        }
+        ready = true;
+        return true;
+    }
+
+    public String nextName() throws IOException {
+        beforeValue();
+        skipWhitespace();
+        String name = readString();
+        skipWhitespace();
+        expect(':');
+        afterName = true;
+        return name;
+    }
+
+    /**
+     * Строка или {@code null}, если в документе записан {@code null}.
+     */
+    public String nextString() throws IOException {
+        beforeValue();
+        if (skipWhitespace() == 'n') {
+            literal("null");
+            return null;
+        }
+        return readString();
+    }
+
+    public long nextLong() throws IOException {
+        beforeValue();
+        skipWhitespace();
+        boolean negative = peek() == '-';
+        if (negative) {
+            position++;
+        }
+        int c = peek();
+        if (c < '0' || c > '9') {
+            throw error("ожидалось число");
+        }
+        long value = 0;
+        while (c >= '0' && c <= '9') {
+            position++;
+            if (value > (Long.MAX_VALUE - (c - '0')) / 10) {
+                throw error("число вне диапазона");
+            }
+            value = value * 10 + (c - '0');
+            c = peek();
+        }
+        if (c == '.' || c == 'e' || c == 'E') {
+            throw error("ожидалось целое число");
+        }
+        return negative ? -value : value;
+    }
+
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw error("число вне диапазона");
+        }
+        return (int) value;
+    }
+
+    public boolean nextBoolean() throws IOException {
+        beforeValue();
+        if (skipWhitespace() == 't') {
+            literal("true");
+            return true;
+        }
+        literal("false");
+        return false;
+    }
+
+    /**
+     * Дата и время ISO-8601 или {@code null}.
+     */
+    public LocalDateTime nextDateTime() throws IOException {
+        beforeValue();
+        if (skipWhitespace() == 'n') {
+            literal("null");
+            return null;
+        }
+        readText();
+        try {
+            if (isIsoSeconds()) {
+                return LocalDateTime.of(digits(0, 4), digits(5, 2), digits(8, 2), digits(11, 2), digits(14, 2), digits(17, 2));
+            }
+            return LocalDateTime.parse(new String(text, 0, textLength, StandardCharsets.UTF_8));
+        } catch (DateTimeException e) {
+            throw error("ожидалась дата в формате ISO-8601: " + new String(text, 0, textLength, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Пропускает значение любого вида, например неизвестное поле.
+     */
+    public void skipValue() throws IOException {
+        beforeValue();
+        int c = skipWhitespace();
+        switch (c) {
+            case '{' -> {
+                open('{');
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+            }
+            case '[' -> {
+                open('[');
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+            }
+            case '"' -> readText();
+            case 't' -> literal("true");
+            case 'f' -> literal("false");
+            case 'n' -> literal("null");
+            default -> skipNumber();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0 && !hasNext()) {
+            throw error("неожиданный конец объекта или массива");
+        }
+        ready = false;
+    }
+
+    private void open(char bracket) throws IOException {
+        skipWhitespace();
+        expect(bracket);
+        if (depth == hasElements.length) {
+            hasElements = Arrays.copyOf(hasElements, depth * 2);
+        }
+        hasElements[depth++] = false;
+    }
+
+    private void close(char bracket) throws IOException {
+        if (ready || afterName) {
+            throw error("ожидалось значение");
+        }
+        skipWhitespace();
+        expect(bracket);
+        depth--;
+    }
+
+    private String readString() throws IOException {
+        readText();
+        return new String(text, 0, textLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Читает строку в байтах UTF-8 в {@code text}, не создавая объект строки.
+     */
+    private void readText() throws IOException {
+        expect('"');
+        textLength = 0;
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return;
+            }
+            if (c == -1) {
+                throw error("не закрыта строка");
+            }
+            if (c < 0x20) {
+                throw error("управляющий символ в строке");
+            }
+            if (c == '\\') {
+                readEscape();
+            } else {
+                append(c);
+            }
+        }
+    }
+
+    private void readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"', '\\', '/' -> append(c);
+            case 'n' -> append('\n');
+            case 'r' -> append('\r');
+            case 't' -> append('\t');
+            case 'b' -> append('\b');
+            case 'f' -> append('\f');
+            case 'u' -> {
+                char unit = readHex();
+                int codePoint = unit;
+                if (Character.isHighSurrogate(unit) && peek() == '\\') {
+                    position++;
+                    if (read() != 'u') {
+                        throw error("ожидалась вторая половина суррогатной пары");
+                    }
+                    char low = readHex();
+                    codePoint = Character.isLowSurrogate(low) ? Character.toCodePoint(unit, low) : 0xFFFD;
+                } else if (Character.isSurrogate(unit)) {
+                    codePoint = 0xFFFD;
+                }
+                appendCodePoint(codePoint);
+            }
+            default -> throw error("неизвестная escape-последовательность");
+        }
+    }
+
+    /**
+     * Строка вида {@code 2024-01-31T09:30:00} — её поля разбираются прямо из байт, без {@code DateTimeFormatter}.
+     */
+    private boolean isIsoSeconds() {
+        if (textLength != 19 || text[4] != '-' || text[7] != '-' || text[10] != 'T' || text[13] != ':' || text[16] != ':') {
+            return false;
+        }
+        for (int i = 0; i < textLength; i++) {
+            if ((i == 4 || i == 7 || i == 10 || i == 13 || i == 16) == (text[i] >= '0' && text[i] <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            value = value * 10 + (text[i] - '0');
+        }
+        return value;
+    }
+
+    private char readHex() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(read(), 16);
+            if (digit < 0) {
+                throw error("ожидалась шестнадцатеричная цифра");
+            }
+            value = value << 4 | digit;
+        }
+        return (char) value;
+    }
+
+    private void appendCodePoint(int codePoint) {
+        if (codePoint < 0x80) {
+            append(codePoint);
+        } else if (codePoint < 0x800) {
+            append(0xC0 | codePoint >> 6);
+            append(0x80 | codePoint & 0x3F);
+        } else if (codePoint < 0x10000) {
+            append(0xE0 | codePoint >> 12);
+            append(0x80 | codePoint >> 6 & 0x3F);
+            append(0x80 | codePoint & 0x3F);
+        } else {
+            append(0xF0 | codePoint >> 18);
+            append(0x80 | codePoint >> 12 & 0x3F);
+            append(0x80 | codePoint >> 6 & 0x3F);
+            append(0x80 | codePoint & 0x3F);
+        }
+    }
+
+    private void append(int b) {
+        if (textLength == text.length) {
+            text = Arrays.copyOf(text, textLength * 2);
+        }
+        text[textLength++] = (byte) b;
+    }
+
+    private void skipNumber() throws IOException {
+        boolean empty = true;
+        int c = peek();
+        while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+            position++;
+            c = peek();
+            empty = false;
+        }
+        if (empty) {
+            throw error("ожидалось значение");
+        }
+    }
+
+    private void literal(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw error("ожидалось " + literal);
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (read() != expected) {
+            throw error("ожидался символ '" + expected + "'");
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            position++;
+            c = peek();
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            position++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        position = 0;
+        limit = 0;
+        int read = in.read(buffer);
+        if (read <= 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    private JsonParseException error(String reason) {
+        return new JsonParseException("Ошибка разбора JSON в позиции " + (consumed + position) + ": " + reason);
+    }
+}
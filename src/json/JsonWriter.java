@@ -0,0 +1,281 @@
+package json;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Потоковая запись JSON прямо в {@link OutputStream}.
+ * <p>
+ * Текст кодируется в UTF-8 вручную в собственный буфер, который сбрасывается в поток по заполнении, поэтому
+ * большой массив не собирается в памяти целиком и на каждое значение не создаётся промежуточных строк.
+ * Запятые между элементами расставляются сами; за парностью скобок следит вызывающий код.
+ */
+public class JsonWriter implements Flushable, Closeable {
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+    private boolean[] hasElements = new boolean[8];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        string(name);
+        write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        string(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        if (value == Long.MIN_VALUE) {
+            ascii(Long.toString(value));
+            return this;
+        }
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+        ensure(20);
+        int end = count + digits(value);
+        for (int i = end - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count = end;
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        ascii(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Дата и время в формате ISO-8601 с секундами: {@code 2024-01-31T09:30:00}.
+     */
+    public JsonWriter value(LocalDateTime value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            return value(value.toString());
+        }
+        beforeValue();
+        ensure(21);
+        buffer[count++] = '"';
+        fixed(year, 4);
+        buffer[count++] = '-';
+        fixed(value.getMonthValue(), 2);
+        buffer[count++] = '-';
+        fixed(value.getDayOfMonth(), 2);
+        buffer[count++] = 'T';
+        fixed(value.getHour(), 2);
+        buffer[count++] = ':';
+        fixed(value.getMinute(), 2);
+        buffer[count++] = ':';
+        fixed(value.getSecond(), 2);
+        buffer[count++] = '"';
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        ensure(NULL.length);
+        System.arraycopy(NULL, 0, buffer, count, NULL.length);
+        count += NULL.length;
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+
+    private JsonWriter open(char bracket) throws IOException {
+        beforeValue();
+        write(bracket);
+        if (depth == hasElements.length) {
+            hasElements = Arrays.copyOf(hasElements, depth * 2);
+        }
+        hasElements[depth++] = false;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("Нет открытого объекта или массива");
+        }
+        depth--;
+        write(bracket);
+        return this;
+    }
+
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        separate();
+    }
+
+    private void separate() throws IOException {
+        if (depth == 0) {
+            return;
+        }
+        if (hasElements[depth - 1]) {
+            write(',');
+        }
+        hasElements[depth - 1] = true;
+    }
+
+    private void string(String value) throws IOException {
+        write('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            ensure(12);
+            if (c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    buffer[count++] = '\\';
+                    buffer[count++] = (byte) c;
+                } else if (c < 0x20) {
+                    escapeControl(c);
+                } else {
+                    buffer[count++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xC0 | c >> 6);
+                buffer[count++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[count++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[count++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[count++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[count++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                unicodeEscape(c);
+            } else {
+                buffer[count++] = (byte) (0xE0 | c >> 12);
+                buffer[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[count++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        write('"');
+    }
+
+    private void escapeControl(char c) {
+        buffer[count++] = '\\';
+        switch (c) {
+            case '\n' -> buffer[count++] = 'n';
+            case '\r' -> buffer[count++] = 'r';
+            case '\t' -> buffer[count++] = 't';
+            case '\b' -> buffer[count++] = 'b';
+            case '\f' -> buffer[count++] = 'f';
+            default -> {
+                count--;
+                unicodeEscape(c);
+            }
+        }
+    }
+
+    private void unicodeEscape(char c) {
+        buffer[count++] = '\\';
+        buffer[count++] = 'u';
+        buffer[count++] = HEX[c >> 12 & 0xF];
+        buffer[count++] = HEX[c >> 8 & 0xF];
+        buffer[count++] = HEX[c >> 4 & 0xF];
+        buffer[count++] = HEX[c & 0xF];
+    }
+
+    private void fixed(int value, int width) {
+        for (int i = count + width - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += width;
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private void ascii(String value) throws IOException {
+        ensure(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer[count++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void write(char c) throws IOException {
+        ensure(1);
+        buffer[count++] = (byte) c;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (count + bytes > buffer.length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
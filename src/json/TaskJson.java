@@ -0,0 +1,143 @@
+package json;
+
+import exceptions.JsonParseException;
+import tasks.Epic;
+import tasks.Status;
+import tasks.SubTask;
+import tasks.Task;
+import tasks.TaskType;
+import tasks.TaskUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Представление задач в JSON без рефлексии.
+ * <p>
+ * Эпик пишется со списком id подзадач, подзадача — с id эпика: так в документе нет цикла
+ * подзадача → эпик → подзадача. Длительность — в минутах, время — ISO-8601.
+ * <pre>
+ * {"id":3,"type":"SUBTASK","title":"...","description":"...","status":"NEW","duration":30,
+ *  "startTime":"2024-01-31T09:30:00","endTime":"2024-01-31T10:00:00","epic":2}
+ * </pre>
+ */
+public class TaskJson {
+    /**
+     * id задачи, в JSON которой id не указан: такую задачу нужно создать, а не обновить.
+     */
+    public static final int NO_ID = -1;
+
+    private TaskJson() {
+    }
+
+    public static void write(JsonWriter writer, Task task) throws IOException {
+        writer.beginObject()
+                .name("id").value(task.getId())
+                .name("type").value(TaskUtils.typeOf(task).name())
+                .name("title").value(task.getTitle())
+                .name("description").value(task.getDescription())
+                .name("status").value(task.getStatus().name())
+                .name("duration").value(task.getDuration().toMinutes())
+                .name("startTime").value(task.getStartTime())
+                .name("endTime").value(task.getEndTime());
+        switch (task) {
+            case SubTask subTask -> writer.name("epic").value(subTask.getCurrentEpic().getId());
+            case Epic epic -> {
+                writer.name("subTasks").beginArray();
+                for (int id : epic.getSubTaskIds()) {
+                    writer.value(id);
+                }
+                writer.endArray();
+            }
+            default -> {
+            }
+        }
+        writer.endObject();
+    }
+
+    /**
+     * Пишет массив задач, забирая их из итератора по одной.
+     */
+    public static void writeArray(JsonWriter writer, Iterator<? extends Task> tasks) throws IOException {
+        writer.beginArray();
+        while (tasks.hasNext()) {
+            write(writer, tasks.next());
+        }
+        writer.endArray();
+    }
+
+    /**
+     * Читает массив задач за один проход и передаёт их в {@code handler} по одной, не собирая список.
+     *
+     * @return число прочитанных задач
+     */
+    public static int readArray(JsonReader reader, TaskType defaultType, IntFunction<Epic> epics,
+                                Consumer<Task> handler) throws IOException {
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            handler.accept(read(reader, defaultType, epics));
+            count++;
+        }
+        reader.endArray();
+        return count;
+    }
+
+    /**
+     * Читает одну задачу. Тип берётся из поля {@code type}, а если его нет — {@code defaultType}.
+     * Эпик подзадачи ищется по id через {@code epics}. Неизвестные поля и список подзадач эпика пропускаются:
+     * состав эпика определяют сами подзадачи.
+     */
+    public static Task read(JsonReader reader, TaskType defaultType, IntFunction<Epic> epics) throws IOException {
+        int id = NO_ID;
+        TaskType type = defaultType;
+        String title = null;
+        String description = null;
+        Status status = Status.NEW;
+        long durationMinutes = 0;
+        LocalDateTime startTime = null;
+        Integer epicId = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "id" -> id = reader.nextInt();
+                case "type" -> type = parseEnum(TaskType.class, reader.nextString());
+                case "title" -> title = reader.nextString();
+                case "description" -> description = reader.nextString();
+                case "status" -> status = parseEnum(Status.class, reader.nextString());
+                case "duration" -> durationMinutes = reader.nextLong();
+                case "startTime" -> startTime = reader.nextDateTime();
+                case "epic" -> epicId = reader.nextInt();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        Duration duration = Duration.ofMinutes(durationMinutes);
+        return switch (type) {
+            case TASK -> new Task(title, description, status, id, duration, startTime);
+            case EPIC -> new Epic(title, description, status, id, new ArrayList<>(), Duration.ZERO, null, null);
+            case SUBTASK -> {
+                if (epicId == null) {
+                    throw new JsonParseException("У подзадачи не указан эпик");
+                }
+                yield new SubTask(title, description, status, id, duration, startTime, epics.apply(epicId));
+            }
+        };
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, String.valueOf(value));
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("Неизвестное значение " + type.getSimpleName() + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package manager;
+
+import tasks.Task;
+import tasks.TaskType;
+import tasks.TaskUtils;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Основа представлений {@link IdMap} над хранилищами, адресуемыми id как индексом массива.
+ * <p>
+ * Наследник отвечает за чтение, запись и удаление одной ячейки; обходы идут по возрастанию id до {@link #bound()}.
+ * Изменения во время обхода не приводят к ошибке, но могут быть как видны, так и не видны обходу.
+ * <p>
+ * Память хранилища растёт с наибольшим id, поэтому id ограничены {@link #MAX_ID}: иначе одна задача с огромным id
+ * из файла сохранения потребовала бы массив на миллиарды ячеек.
+ */
+abstract class ArrayIdMap<T extends Task> extends AbstractMap<Integer, T> implements IdMap<T> {
+    static final int MAX_ID = (1 << 24) - 1;
+
+    protected final TaskType type;
+
+    protected ArrayIdMap(TaskType type) {
+        this.type = type;
+    }
+
+    @Override
+    public abstract T get(int id);
+
+    /**
+     * Граница id: все хранимые id меньше неё.
+     */
+    protected abstract int bound();
+
+    /**
+     * Занята ли ячейка задачей любого типа.
+     */
+    protected abstract boolean occupied(int id);
+
+    protected abstract void store(int id, T value);
+
+    protected abstract void erase(int id);
+
+    @Override
+    public abstract int size();
+
+    @Override
+    public T get(Object key) {
+        return key instanceof Integer id ? get(id.intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(int id) {
+        return get(id) != null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer id && containsKey(id.intValue());
+    }
+
+    @Override
+    public T put(Integer id, T value) {
+        if (id < 0 || value.getId() != id || TaskUtils.typeOf(value) != type) {
+            throw new IllegalArgumentException("Задачу " + value.getId() + " нельзя сохранить под id " + id
+                    + " как " + type);
+        }
+        if (id > MAX_ID) {
+            throw new IllegalArgumentException("Id " + id + " больше допустимого " + MAX_ID);
+        }
+        T previous = get(id.intValue());
+        if (previous == null && occupied(id)) {
+            throw new IllegalArgumentException("Id " + id + " уже занят задачей другого типа");
+        }
+        store(id, value);
+        return previous;
+    }
+
+    @Override
+    public T remove(int id) {
+        T removed = get(id);
+        if (removed != null) {
+            erase(id);
+        }
+        return removed;
+    }
+
+    @Override
+    public T remove(Object key) {
+        return key instanceof Integer id ? remove(id.intValue()) : null;
+    }
+
+    @Override
+    public void clear() {
+        for (int id = 0; id < bound() && size() > 0; id++) {
+            if (containsKey(id)) {
+                erase(id);
+            }
+        }
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super Integer, ? super T> action) {
+        for (int id = 0; id < bound(); id++) {
+            T task = get(id);
+            if (task != null) {
+                action.accept(id, task);
+            }
+        }
+    }
+
+    @Override
+    public Collection<T> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new IdIterator<>(ArrayIdMap.this::get);
+            }
+
+            @Override
+            public int size() {
+                return ArrayIdMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Integer, T>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, T>> iterator() {
+                return new IdIterator<>(id -> {
+                    T task = get(id);
+                    return task == null ? null : new SimpleImmutableEntry<>(id, task);
+                });
+            }
+
+            @Override
+            public int size() {
+                return ArrayIdMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * Итератор заранее читает следующий элемент, поэтому {@code hasNext} не обманывает, даже если элемент
+     * удалили между вызовами.
+     */
+    private class IdIterator<E> implements Iterator<E> {
+        private final IntFunction<E> element;
+        private int next = -1;
+        private E nextElement;
+        private int last = -1;
+
+        IdIterator(IntFunction<E> element) {
+            this.element = element;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextElement != null;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E result = nextElement;
+            last = next;
+            advance();
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            ArrayIdMap.this.remove(last);
+            last = -1;
+        }
+
+        private void advance() {
+            nextElement = null;
+            while (nextElement == null && ++next < bound()) {
+                nextElement = element.apply(next);
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package manager;
+
+import exceptions.ManagerSaveException;
+import tasks.Epic;
+import tasks.SubTask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Менеджер, который сохраняет файл не на каждое изменение, а в фоне.
+ * <p>
+ * Изменение только помечает состояние изменённым. Фоновый поток раз в {@code interval} снимает снимок и пишет его
+ * в файл, так что серия изменений за интервал превращается в одну запись. Снимок снимается под той же
+ * блокировкой, что и изменения, а запись на диск идёт уже без неё.
+ * <p>
+ * Гарантии сохранности:
+ * <ul>
+ *     <li>изменение попадает в файл не позже чем через {@code interval} плюс время записи;</li>
+ *     <li>после возврата из {@link #flush()} и {@link #close()} в файле есть все изменения, сделанные до вызова;</li>
+ *     <li>при падении процесса теряются изменения, не успевшие попасть в файл, но не больше
+ *     {@code maxPendingChanges}: достигнув этого числа несохранённых изменений, вызывающий поток сам ждёт записи.</li>
+ * </ul>
+ * Ошибка фоновой записи бросается как {@link ManagerSaveException} из следующего изменения или {@link #flush()}.
+ * Как и {@link FileBackedTaskManager}, менеджер рассчитан на один вызывающий поток.
+ */
+public class AsyncFileBackedTaskManager extends FileBackedTaskManager implements AutoCloseable {
+    public static final Duration DEFAULT_INTERVAL = Duration.ofMillis(200);
+    public static final int DEFAULT_MAX_PENDING_CHANGES = 10_000;
+
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "async-save-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final int maxPendingChanges;
+    private long version;
+    private volatile long writtenVersion;
+    private volatile RuntimeException failure;
+
+    public AsyncFileBackedTaskManager(File saveFile) {
+        this(saveFile, SaveFormat.CSV, DEFAULT_INTERVAL, DEFAULT_MAX_PENDING_CHANGES);
+    }
+
+    public AsyncFileBackedTaskManager(File saveFile, SaveFormat format, Duration interval, int maxPendingChanges) {
+        super(saveFile, format);
+        if (interval.isNegative() || interval.isZero() || maxPendingChanges <= 0) {
+            throw new IllegalArgumentException("Интервал записи и предел несохранённых изменений должны быть положительными");
+        }
+        this.maxPendingChanges = maxPendingChanges;
+        long millis = interval.toMillis();
+        writer.scheduleWithFixedDelay(this::writeIfDirty, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void clearTasks() {
+        locked(() -> {
+            super.clearTasks();
+            return null;
+        });
+    }
+
+    @Override
+    public void clearSubTasks() {
+        locked(() -> {
+            super.clearSubTasks();
+            return null;
+        });
+    }
+
+    @Override
+    public void clearEpics() {
+        locked(() -> {
+            super.clearEpics();
+            return null;
+        });
+    }
+
+    @Override
+    public void clearTaskById(int id) {
+        locked(() -> {
+            super.clearTaskById(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void clearSubTaskById(int id) {
+        locked(() -> {
+            super.clearSubTaskById(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void clearEpicById(int id) {
+        locked(() -> {
+            super.clearEpicById(id);
+            return null;
+        });
+    }
+
+    @Override
+    public Task create(Task task) {
+        return locked(() -> super.create(task));
+    }
+
+    @Override
+    public Task update(Task task) {
+        return locked(() -> super.update(task));
+    }
+
+    @Override
+    public Epic create(Epic epic) {
+        return locked(() -> super.create(epic));
+    }
+
+    @Override
+    public Epic update(Epic epic) {
+        return locked(() -> super.update(epic));
+    }
+
+    @Override
+    public SubTask create(SubTask subTask) {
+        return locked(() -> super.create(subTask));
+    }
+
+    @Override
+    public SubTask update(SubTask subTask) {
+        return locked(() -> super.update(subTask));
+    }
+
+    @Override
+    public ArrayList<Task> applyBatch(Batch batch) {
+        return locked(() -> super.applyBatch(batch));
+    }
+
+    /**
+     * Снимок снимается под блокировкой: фоновый поток в это время может собирать свой в тот же буфер.
+     */
+    @Override
+    public void saveAs(File file, SaveFormat format) {
+        byte[] snapshot;
+        stateLock.lock();
+        try {
+            snapshot = snapshot(format);
+        } finally {
+            stateLock.unlock();
+        }
+        SnapshotFiles.writeAtomically(file.toPath(), snapshot);
+    }
+
+    @Override
+    protected void persistBatch(List<Task> changed) {
+        version++;
+    }
+
+    @Override
+    protected void persistUpsert(Task task) {
+        version++;
+    }
+
+    @Override
+    protected void persistRemove(TaskType type, int id) {
+        version++;
+    }
+
+    @Override
+    protected void persistClear(TaskType type) {
+        version++;
+    }
+
+    /**
+     * Записывает все сделанные до вызова изменения и дожидается окончания записи.
+     */
+    public void flush() {
+        try {
+            writer.submit(this::writeIfDirty).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Прервано ожидание записи файла");
+        } catch (ExecutionException e) {
+            throw new ManagerSaveException("Ошибка при записи файла: " + e.getCause());
+        }
+        checkFailure();
+    }
+
+    /**
+     * Число изменений, ещё не попавших в файл.
+     */
+    public long getPendingChanges() {
+        stateLock.lock();
+        try {
+            return version - writtenVersion;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (writer.isShutdown()) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    private <T> T locked(Supplier<T> mutation) {
+        checkFailure();
+        long pending;
+        T result;
+        stateLock.lock();
+        try {
+            result = mutation.get();
+            pending = version - writtenVersion;
+        } finally {
+            stateLock.unlock();
+        }
+        if (pending >= maxPendingChanges) {
+            flush();
+        }
+        return result;
+    }
+
+    private void writeIfDirty() {
+        byte[] snapshot;
+        long target;
+        stateLock.lock();
+        try {
+            if (version == writtenVersion) {
+                return;
+            }
+            target = version;
+            snapshot = snapshot();
+        } finally {
+            stateLock.unlock();
+        }
+        try {
+            write(snapshot);
+            failure = null;
+            writtenVersion = target;
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    private void checkFailure() {
+        RuntimeException error = failure;
+        if (error != null) {
+            throw new ManagerSaveException("Не удалось записать файл в фоне: " + error.getMessage());
+        }
+    }
+}
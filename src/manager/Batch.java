@@ -0,0 +1,41 @@
+package manager;
+
+import tasks.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Пакет изменений для {@link TaskManager#applyBatch(Batch)}. Вид задачи (задача, эпик, подзадача) определяется
+ * по классу объекта. Подзадача может ссылаться на эпик, созданный в этом же пакете раньше неё.
+ */
+public class Batch {
+    public enum Kind {
+        CREATE,
+        UPDATE
+    }
+
+    public record Operation(Kind kind, Task task) {
+    }
+
+    private final ArrayList<Operation> operations = new ArrayList<>();
+
+    public Batch create(Task task) {
+        operations.add(new Operation(Kind.CREATE, task));
+        return this;
+    }
+
+    public Batch update(Task task) {
+        operations.add(new Operation(Kind.UPDATE, task));
+        return this;
+    }
+
+    public List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    public int size() {
+        return operations.size();
+    }
+}
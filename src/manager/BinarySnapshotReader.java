@@ -0,0 +1,143 @@
+package manager;
+
+import exceptions.ManagerImportTaskException;
+import exceptions.ManagerReadSaveFileException;
+import tasks.Status;
+import tasks.TaskType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static manager.BinarySnapshotWriter.EPIC;
+import static manager.BinarySnapshotWriter.HEADER_LENGTH;
+import static manager.BinarySnapshotWriter.MAGIC;
+import static manager.BinarySnapshotWriter.SUBTASK;
+import static manager.BinarySnapshotWriter.TASK;
+import static manager.BinarySnapshotWriter.VERSION;
+
+/**
+ * Читает снимок, записанный {@link BinarySnapshotWriter}.
+ */
+class BinarySnapshotReader {
+    private static final Status[] STATUSES = Status.values();
+
+    private final ByteBuffer buffer;
+    private final TaskRow row = new TaskRow();
+    private byte[] scratch = new byte[256];
+
+    private BinarySnapshotReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    static boolean isBinary(Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
+            return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+        } catch (IOException e) {
+            throw new ManagerReadSaveFileException("Не удалось прочитать файл сохранения: " + e);
+        }
+    }
+
+    static LoadStats read(Path path, Consumer<TaskRow> handler) {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ManagerReadSaveFileException("Файл сохранения слишком велик для загрузки: " + size + " байт");
+            }
+            BinarySnapshotReader reader = new BinarySnapshotReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            int rows = reader.readHeader();
+            for (int i = 0; i < rows; i++) {
+                reader.readRow();
+                handler.accept(reader.row);
+            }
+            return new LoadStats(rows, size, System.nanoTime() - started);
+        } catch (IOException e) {
+            throw new ManagerReadSaveFileException("Не удалось прочитать файл сохранения: " + e);
+        }
+    }
+
+    private int readHeader() {
+        if (buffer.remaining() < HEADER_LENGTH) {
+            throw new ManagerReadSaveFileException("Двоичный снимок повреждён: нет заголовка");
+        }
+        for (byte b : MAGIC) {
+            if (buffer.get() != b) {
+                throw new ManagerReadSaveFileException("Файл не является двоичным снимком");
+            }
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new ManagerReadSaveFileException("Неподдерживаемая версия двоичного снимка: " + version);
+        }
+        buffer.getShort();
+        return buffer.getInt();
+    }
+
+    private void readRow() {
+        try {
+            row.type = switch (buffer.get()) {
+                case TASK -> TaskType.TASK;
+                case EPIC -> TaskType.EPIC;
+                case SUBTASK -> TaskType.SUBTASK;
+                default -> throw new ManagerImportTaskException("Неизвестный тип записи в двоичном снимке");
+            };
+            row.id = (int) readVarLong();
+            row.title = readString();
+            row.description = readString();
+            row.status = STATUSES[buffer.get()];
+            row.durationMinutes = readVarLong();
+            row.startTime = readTime();
+            row.endTime = null;
+            row.epicId = row.type == TaskType.SUBTASK ? (int) readVarLong() : 0;
+        } catch (RuntimeException e) {
+            if (e instanceof ManagerImportTaskException) {
+                throw e;
+            }
+            throw new ManagerImportTaskException("Двоичный снимок повреждён в позиции " + buffer.position() + ": " + e);
+        }
+    }
+
+    private LocalDateTime readTime() {
+        long encoded = readVarLong();
+        if (encoded == 0) {
+            return null;
+        }
+        long zigzag = encoded - 1;
+        long seconds = (zigzag >>> 1) ^ -(zigzag & 1);
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    private String readString() {
+        int length = (int) readVarLong() - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new ManagerImportTaskException("Слишком длинное число в двоичном снимке");
+    }
+}
@@ -0,0 +1,122 @@
+package manager;
+
+import tasks.Epic;
+import tasks.SubTask;
+import tasks.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Двоичный снимок задач.
+ * <p>
+ * Заголовок фиксированной длины: сигнатура {@link #MAGIC}, версия формата (2 байта), зарезервированные 2 байта и
+ * количество записей (4 байта). Запись: байт типа, id (varint), название и описание (длина varint + UTF-8, 0 —
+ * null), байт статуса, длительность в минутах (varint), время начала в секундах от эпохи UTC (zigzag varint,
+ * 0 — нет времени, иначе значение + 1) и для подзадач id эпика (varint). Время окончания не хранится: оно
+ * вычисляется из начала и длительности, а у эпиков — из подзадач.
+ */
+class BinarySnapshotWriter {
+    static final byte[] MAGIC = {'K', 'N', 'B', 'N'};
+    static final short VERSION = 1;
+    static final int HEADER_LENGTH = 12;
+    static final byte TASK = 1;
+    static final byte EPIC = 2;
+    static final byte SUBTASK = 3;
+
+    private byte[] buffer;
+    private int size;
+
+    private BinarySnapshotWriter(int capacity) {
+        buffer = new byte[Math.max(capacity, HEADER_LENGTH)];
+    }
+
+    static byte[] write(Collection<Task> tasks, Collection<Epic> epics, Collection<SubTask> subTasks) {
+        int rows = tasks.size() + epics.size() + subTasks.size();
+        BinarySnapshotWriter writer = new BinarySnapshotWriter(HEADER_LENGTH + rows * 64);
+        writer.writeBytes(MAGIC);
+        writer.writeShort(VERSION);
+        writer.writeShort((short) 0);
+        writer.writeInt(rows);
+        for (Task task : tasks) {
+            writer.writeRow(TASK, task);
+        }
+        for (Epic epic : epics) {
+            writer.writeRow(EPIC, epic);
+        }
+        for (SubTask subTask : subTasks) {
+            writer.writeRow(SUBTASK, subTask);
+            writer.writeVarLong(subTask.getCurrentEpic().getId());
+        }
+        return Arrays.copyOf(writer.buffer, writer.size);
+    }
+
+    private void writeRow(byte type, Task task) {
+        writeByte(type);
+        writeVarLong(task.getId());
+        writeString(task.getTitle());
+        writeString(task.getDescription());
+        writeByte((byte) task.getStatus().ordinal());
+        writeVarLong(task.getDuration().toMinutes());
+        writeTime(task.getStartTime());
+    }
+
+    private void writeTime(LocalDateTime time) {
+        if (time == null) {
+            writeVarLong(0);
+            return;
+        }
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        writeVarLong(((seconds << 1) ^ (seconds >> 63)) + 1);
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        writeBytes(bytes);
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        writeShort((short) (value >>> 16));
+        writeShort((short) value);
+    }
+
+    private void writeShort(short value) {
+        ensureCapacity(2);
+        buffer[size++] = (byte) (value >>> 8);
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeByte(byte value) {
+        ensureCapacity(1);
+        buffer[size++] = value;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
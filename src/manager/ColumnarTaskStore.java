@@ -0,0 +1,155 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Status;
+import tasks.SubTask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Колоночное хранилище задач и подзадач для больших бэклогов — задач без времени начала.
+ * <p>
+ * Поля лежат в параллельных массивах, индексированных id: тип и статус — байты, время начала и длительность —
+ * секунды в {@code long}, эпик подзадачи — {@code int}, название и описание — номера строк в {@link StringPool}.
+ * Объект {@link Task} создаётся только при чтении и является неизменяемым снимком; повторные чтения дают равные,
+ * но разные объекты. Эпики хранятся объектами, так как несут агрегаты по подзадачам.
+ * <p>
+ * Задачи со временем начала менеджер всё равно держит объектами в индексе по времени, а подзадачи — в их эпиках,
+ * так что для них колонки не заменяют объекты, а добавляются к ним. Память экономится только на задачах без времени
+ * и на повторяющихся строках; для расписаний и эпиков с подзадачами {@link TaskStore} занимает меньше.
+ */
+class ColumnarTaskStore {
+    private static final byte EMPTY = 0;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final StringPool strings = new StringPool();
+    private final int[] counts = new int[TYPES.length];
+    private final IdMap<Epic> epics = new TaskStore().view(TaskType.EPIC);
+    private final IdMap<Task> tasks = new View<>(TaskType.TASK);
+    private final IdMap<SubTask> subTasks = new View<>(TaskType.SUBTASK);
+    private byte[] types = new byte[16];
+    private byte[] statuses = new byte[16];
+    private long[] startSeconds = new long[16];
+    private long[] durationSeconds = new long[16];
+    private int[] epicIds = new int[16];
+    private int[] titles = new int[16];
+    private int[] descriptions = new int[16];
+
+    IdMap<Task> tasks() {
+        return tasks;
+    }
+
+    IdMap<Epic> epics() {
+        return epics;
+    }
+
+    IdMap<SubTask> subTasks() {
+        return subTasks;
+    }
+
+    int getStringsCount() {
+        return strings.size();
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < types.length) {
+            return;
+        }
+        int capacity = Math.max(id + 1, types.length * 2);
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        startSeconds = Arrays.copyOf(startSeconds, capacity);
+        durationSeconds = Arrays.copyOf(durationSeconds, capacity);
+        epicIds = Arrays.copyOf(epicIds, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+    }
+
+    private boolean holds(int id, TaskType type) {
+        return id >= 0 && id < types.length && types[id] == type.ordinal() + 1;
+    }
+
+    private void write(int id, TaskType type, Task task) {
+        ensureCapacity(id);
+        if (types[id] != EMPTY) {
+            erase(id);
+        }
+        types[id] = (byte) (type.ordinal() + 1);
+        statuses[id] = (byte) task.getStatus().ordinal();
+        startSeconds[id] = task.getStartTime() == null ? NO_TIME : task.getStartTime().toEpochSecond(ZoneOffset.UTC);
+        durationSeconds[id] = task.getDuration().getSeconds();
+        epicIds[id] = task instanceof SubTask subTask ? subTask.getCurrentEpic().getId() : 0;
+        titles[id] = strings.acquire(task.getTitle());
+        descriptions[id] = strings.acquire(task.getDescription());
+        counts[type.ordinal()]++;
+    }
+
+    private void erase(int id) {
+        counts[types[id] - 1]--;
+        types[id] = EMPTY;
+        strings.release(titles[id]);
+        strings.release(descriptions[id]);
+    }
+
+    private Task read(int id) {
+        String title = strings.get(titles[id]);
+        String description = strings.get(descriptions[id]);
+        Status status = STATUSES[statuses[id]];
+        Duration duration = Duration.ofSeconds(durationSeconds[id]);
+        LocalDateTime startTime = startSeconds[id] == NO_TIME ? null
+                : LocalDateTime.ofEpochSecond(startSeconds[id], 0, ZoneOffset.UTC);
+        if (types[id] == TaskType.SUBTASK.ordinal() + 1) {
+            return new SubTask(title, description, status, id, duration, startTime, epics.get(epicIds[id])).snapshot();
+        }
+        return new Task(title, description, status, id, duration, startTime).snapshot();
+    }
+
+    private class View<T extends Task> extends ArrayIdMap<T> {
+        View(TaskType type) {
+            super(type);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int id) {
+            return holds(id, type) ? (T) read(id) : null;
+        }
+
+        @Override
+        public boolean containsKey(int id) {
+            return holds(id, type);
+        }
+
+        @Override
+        protected int bound() {
+            return types.length;
+        }
+
+        @Override
+        protected boolean occupied(int id) {
+            return id >= 0 && id < types.length && types[id] != EMPTY;
+        }
+
+        @Override
+        protected void store(int id, T value) {
+            write(id, type, value);
+        }
+
+        @Override
+        protected void erase(int id) {
+            ColumnarTaskStore.this.erase(id);
+        }
+
+        @Override
+        public int size() {
+            return counts[type.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package manager;
+
+import history.SynchronizedHistoryManager;
+import tasks.Epic;
+import tasks.SubTask;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Потокобезопасный менеджер задач.
+ * <p>
+ * Задачи, эпики и подзадачи лежат в {@link ConcurrentHashMap}, поэтому чтение задач и подзадач по id и списков
+ * не блокируется.
+ * Блокировки берутся всегда в одном порядке:
+ * <ol>
+ *     <li>{@code structureLock} — на чтение для одиночных изменений и на запись для массовых очисток и пакетов;</li>
+ *     <li>блокировки эпиков — для изменений подзадач и пересчёта статуса эпика, несколько эпиков в порядке
+ *     номера блокировки;</li>
+ *     <li>{@code scheduleLock} — на запись для проверки пересечений вместе с изменением индекса по времени.</li>
+ * </ol>
+ * Создание задачи без времени начала не читает и не меняет индекс по времени, поэтому обходится без
+ * {@code scheduleLock}.
+ * <p>
+ * Блокировок эпиков фиксированное число {@value #EPIC_LOCK_STRIPES}, эпик берёт блокировку по остатку от деления
+ * id. Так их число не растёт ни с числом эпиков, ни с запросами к несуществующим id, а два эпика изредка
+ * делят одну блокировку, что лишь немного снижает параллельность.
+ * <p>
+ * Эпики хранятся неизменяемыми снимками, поэтому чтение эпика блокировку эпика не берёт. Оно берёт
+ * {@code structureLock} на чтение, чтобы не увидеть эпик посреди массовой очистки.
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    private static final int EPIC_LOCK_STRIPES = 64;
+
+    private final AtomicInteger ids = new AtomicInteger();
+    private final ReentrantReadWriteLock structureLock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock scheduleLock = new ReentrantReadWriteLock();
+    private final ReentrantLock[] epicLocks = new ReentrantLock[EPIC_LOCK_STRIPES];
+
+    public ConcurrentTaskManager() {
+        super(new ConcurrentIdMap<>(), new ConcurrentIdMap<>(), new ConcurrentIdMap<>(),
+                new SynchronizedHistoryManager(Managers.getDefaultHistory()));
+        for (int i = 0; i < EPIC_LOCK_STRIPES; i++) {
+            epicLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    protected int nextId() {
+        return ids.getAndIncrement();
+    }
+
+    @Override
+    protected int idBound() {
+        return ids.get();
+    }
+
+    @Override
+    protected int maxId() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public ArrayList<Task> getPrioritizedTasks() {
+        return locked(scheduleLock.readLock(), super::getPrioritizedTasks);
+    }
+
+    /**
+     * Индекс по времени не потокобезопасен, поэтому поток идёт по копии, снятой под блокировкой.
+     */
+    @Override
+    public Stream<Task> streamPrioritizedTasks() {
+        return getPrioritizedTasks().stream();
+    }
+
+    @Override
+    public ArrayList<Task> getPrioritizedTasks(LocalDateTime from, int limit) {
+        return locked(scheduleLock.readLock(), () -> super.getPrioritizedTasks(from, limit));
+    }
+
+    @Override
+    public ArrayList<Task> getPrioritizedTasksAfter(LocalDateTime start, LocalDateTime end, int id, int limit) {
+        return locked(scheduleLock.readLock(), () -> super.getPrioritizedTasksAfter(start, end, id, limit));
+    }
+
+    @Override
+    public ArrayList<Task> getCrossingTasks(LocalDateTime from, LocalDateTime to) {
+        return locked(scheduleLock.readLock(), () -> super.getCrossingTasks(from, to));
+    }
+
+    @Override
+    public ArrayList<TimeSlot> busyIntervals(LocalDateTime from, LocalDateTime to) {
+        return locked(scheduleLock.readLock(), () -> super.busyIntervals(from, to));
+    }
+
+    @Override
+    public LocalDateTime nextFreeSlot(Duration duration, LocalDateTime after) {
+        return locked(scheduleLock.readLock(), () -> super.nextFreeSlot(duration, after));
+    }
+
+    @Override
+    public void clearTasks() {
+        locked(structureLock.writeLock(), () -> locked(scheduleLock.writeLock(), () -> {
+            super.clearTasks();
+            return null;
+        }));
+    }
+
+    @Override
+    public void clearSubTasks() {
+        locked(structureLock.writeLock(), () -> locked(scheduleLock.writeLock(), () -> {
+            super.clearSubTasks();
+            return null;
+        }));
+    }
+
+    @Override
+    public void clearEpics() {
+        locked(structureLock.writeLock(), () -> locked(scheduleLock.writeLock(), () -> {
+            super.clearEpics();
+            return null;
+        }));
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return locked(structureLock.readLock(), () -> super.getEpicById(id));
+    }
+
+    @Override
+    public ArrayList<SubTask> getSubTasksByEpic(Epic epic) {
+        return locked(structureLock.readLock(), () -> super.getSubTasksByEpic(epic));
+    }
+
+    @Override
+    public void clearTaskById(int id) {
+        locked(structureLock.readLock(), () -> locked(scheduleLock.writeLock(), () -> {
+            super.clearTaskById(id);
+            return null;
+        }));
+    }
+
+    @Override
+    public void clearSubTaskById(int id) {
+        locked(structureLock.readLock(), () -> {
+            while (true) {
+                SubTask subTask = subTasks.get(id);
+                int epicId = subTask.getCurrentEpic().getId();
+                boolean removed = locked(epicLock(epicId), () -> {
+                    SubTask current = subTasks.get(id);
+                    if (current != null && current.getCurrentEpic().getId() != epicId) {
+                        return false;
+                    }
+                    locked(scheduleLock.writeLock(), () -> {
+                        super.clearSubTaskById(id);
+                        return null;
+                    });
+                    return true;
+                });
+                if (removed) {
+                    return null;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void clearEpicById(int id) {
+        locked(structureLock.readLock(), () -> locked(epicLock(id), () -> locked(scheduleLock.writeLock(), () -> {
+            super.clearEpicById(id);
+            return null;
+        })));
+    }
+
+    @Override
+    public Task create(Task task) {
+        if (task == null || task.getStartTime() == null) {
+            return locked(structureLock.readLock(), () -> super.create(task));
+        }
+        return locked(structureLock.readLock(), () -> locked(scheduleLock.writeLock(), () -> super.create(task)));
+    }
+
+    @Override
+    public Task update(Task task) {
+        return locked(structureLock.readLock(), () -> locked(scheduleLock.writeLock(), () -> super.update(task)));
+    }
+
+    @Override
+    public Epic create(Epic epic) {
+        return locked(structureLock.readLock(), () -> super.create(epic));
+    }
+
+    @Override
+    public Epic update(Epic epic) {
+        if (epic == null) {
+            return null;
+        }
+        return locked(structureLock.readLock(), () -> locked(epicLock(epic.getId()), () -> super.update(epic)));
+    }
+
+    @Override
+    public SubTask create(SubTask subTask) {
+        if (subTask == null) {
+            return null;
+        }
+        return locked(structureLock.readLock(), () -> locked(epicLock(subTask.getCurrentEpic().getId()),
+                () -> locked(scheduleLock.writeLock(), () -> super.create(subTask))));
+    }
+
+    @Override
+    public SubTask update(SubTask subTask) {
+        if (subTask == null) {
+            return null;
+        }
+        return locked(structureLock.readLock(), () -> {
+            while (true) {
+                SubTask stored = subTasks.get(subTask.getId());
+                int newEpicId = subTask.getCurrentEpic().getId();
+                int oldEpicId = stored == null ? newEpicId : stored.getCurrentEpic().getId();
+                int oldStripe = stripe(oldEpicId);
+                int newStripe = stripe(newEpicId);
+                Lock first = epicLocks[Math.min(oldStripe, newStripe)];
+                Lock second = epicLocks[Math.max(oldStripe, newStripe)];
+                Supplier<Optional<SubTask>> attempt = () -> {
+                    SubTask current = subTasks.get(subTask.getId());
+                    if (current != null && current.getCurrentEpic().getId() != oldEpicId) {
+                        return null;
+                    }
+                    return Optional.ofNullable(locked(scheduleLock.writeLock(), () -> super.update(subTask)));
+                };
+                Optional<SubTask> result = locked(first, () -> locked(second, attempt));
+                if (result != null) {
+                    return result.orElse(null);
+                }
+            }
+        });
+    }
+
+    @Override
+    public ArrayList<Task> applyBatch(Batch batch) {
+        return locked(structureLock.writeLock(), () -> locked(scheduleLock.writeLock(), () -> super.applyBatch(batch)));
+    }
+
+    private Lock epicLock(int epicId) {
+        return epicLocks[stripe(epicId)];
+    }
+
+    private static int stripe(int epicId) {
+        return Math.floorMod(epicId, EPIC_LOCK_STRIPES);
+    }
+
+    private static class ConcurrentIdMap<V> extends ConcurrentHashMap<Integer, V> implements IdMap<V> {
+    }
+
+    private static <T> T locked(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
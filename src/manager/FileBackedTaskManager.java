@@ -2,186 +2,407 @@ package manager;
 
 import exceptions.ManagerImportTaskException;
 import exceptions.ManagerReadSaveFileException;
-import exceptions.ManagerSaveException;
 import tasks.*;
 
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
-import static tasks.Task.DATE_TIME_FORMATER;
+import static tasks.TaskUtils.stringToDate;
 
 public class FileBackedTaskManager extends InMemoryTaskManager {
     public static final String SCV_HEAD = "id,type,name,status,description,duration,startTime,endTime,epic\n";
-    private final File saveFile;
+    private static final String SEARCH_INDEX_SUFFIX = ".idx";
+    protected final File saveFile;
+    protected final SaveFormat format;
+    private final boolean persistSearchIndex;
+    private final StringBuilder csvBuffer = new StringBuilder(SCV_HEAD.length());
+    private LoadStats loadStats = LoadStats.EMPTY;
+    private boolean recoveredFromBackup;
 
     public FileBackedTaskManager(File saveFile) {
+        this(saveFile, SaveFormat.CSV);
+    }
+
+    public FileBackedTaskManager(File saveFile, SaveFormat format) {
+        this(saveFile, format, false);
+    }
+
+    /**
+     * @param persistSearchIndex хранить полнотекстовый индекс в {@code <файл>.idx} рядом с файлом сохранения:
+     *                           при запуске он читается с диска, если снимок с тех пор не менялся, и первый
+     *                           {@link #search} не тратит время на построение индекса
+     */
+    public FileBackedTaskManager(File saveFile, SaveFormat format, boolean persistSearchIndex) {
         super();
         this.saveFile = saveFile;
+        this.format = format;
+        this.persistSearchIndex = persistSearchIndex;
         initializeState();
     }
 
     @Override
     public void clearTasks() {
         super.clearTasks();
-        save();
+        persistClear(TaskType.TASK);
     }
 
     @Override
     public void clearSubTasks() {
         super.clearSubTasks();
-        save();
+        persistClear(TaskType.SUBTASK);
     }
 
     @Override
     public void clearEpics() {
         super.clearEpics();
-        save();
+        persistClear(TaskType.EPIC);
     }
 
     @Override
-    public void clearTaskById(Integer id) {
+    public void clearTaskById(int id) {
         super.clearTaskById(id);
-        save();
+        persistRemove(TaskType.TASK, id);
     }
 
     @Override
-    public void clearSubTaskById(Integer id) {
+    public void clearSubTaskById(int id) {
         super.clearSubTaskById(id);
-        save();
+        persistRemove(TaskType.SUBTASK, id);
     }
 
     @Override
-    public void clearEpicById(Integer id) {
+    public void clearEpicById(int id) {
         super.clearEpicById(id);
-        save();
+        persistRemove(TaskType.EPIC, id);
     }
 
     @Override
     public Task create(Task task) {
         Task result = super.create(task);
-        save();
+        persistUpsert(result);
         return result;
     }
 
     @Override
     public Task update(Task task) {
         Task result = super.update(task);
-        save();
+        persistUpsert(result);
         return result;
     }
 
     @Override
     public Epic create(Epic epic) {
         Epic result = super.create(epic);
-        save();
+        persistUpsert(result);
         return result;
     }
 
     @Override
     public Epic update(Epic epic) {
         Epic result = super.update(epic);
-        save();
+        persistUpsert(result);
         return result;
     }
 
     @Override
     public SubTask create(SubTask subTask) {
         SubTask result = super.create(subTask);
-        save();
+        persistUpsert(result);
         return result;
     }
 
     @Override
     public SubTask update(SubTask subTask) {
         SubTask result = super.update(subTask);
-        save();
+        persistUpsert(result);
         return result;
     }
 
-    private void save() {
-        try (FileWriter fw = new FileWriter(saveFile, false)) {
-            fw.write(SCV_HEAD);
-            for (Task task : tasks.values()) {
-                fw.write(TaskUtils.toString(task));
-            }
-            for (Epic epic : epics.values()) {
-                fw.write(TaskUtils.toString(epic));
-            }
-            for (SubTask subTask : subTasks.values()) {
-                fw.write(TaskUtils.toString(subTask));
-            }
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при сохранении: " + e);
+    @Override
+    public ArrayList<Task> applyBatch(Batch batch) {
+        ArrayList<Task> result = super.applyBatch(batch);
+        persistBatch(result);
+        return result;
+    }
+
+    protected void persistBatch(List<Task> changed) {
+        save();
+    }
+
+    protected void persistUpsert(Task task) {
+        save();
+    }
+
+    protected void persistRemove(TaskType type, int id) {
+        save();
+    }
+
+    protected void persistClear(TaskType type) {
+        save();
+    }
+
+    protected void save() {
+        write(snapshot(), searchIndexSnapshot());
+    }
+
+    protected byte[] snapshot() {
+        return snapshot(format);
+    }
+
+    byte[] snapshot(SaveFormat format) {
+        return switch (format) {
+            case CSV -> csvSnapshot().getBytes(StandardCharsets.UTF_8);
+            case BINARY -> BinarySnapshotWriter.write(tasks.values(), epics.values(), subTasks.values());
+            case JSON -> JsonSnapshotWriter.write(tasks.values(), epics.values(), subTasks.values());
+        };
+    }
+
+    /**
+     * Строки пишутся в один переиспользуемый буфер: после первого сохранения он уже нужного размера
+     * и новые снимки не растят его заново.
+     */
+    private String csvSnapshot() {
+        StringBuilder sb = csvBuffer;
+        sb.setLength(0);
+        sb.append(SCV_HEAD);
+        for (Task task : tasks.values()) {
+            TaskUtils.appendCsvRow(sb, task);
         }
+        for (Epic epic : epics.values()) {
+            TaskUtils.appendCsvRow(sb, epic);
+        }
+        for (SubTask subTask : subTasks.values()) {
+            TaskUtils.appendCsvRow(sb, subTask);
+        }
+        return sb.toString();
     }
 
+    /**
+     * Полнотекстовый индекс для записи рядом со снимком или {@code null}, если хранить его не нужно.
+     * Снимать его нужно вместе со снимком задач, чтобы оба описывали одно состояние.
+     */
+    protected byte[] searchIndexSnapshot() {
+        return persistSearchIndex ? searchIndex().toBytes() : null;
+    }
+
+    protected void write(byte[] snapshot) {
+        write(saveFile, snapshot);
+    }
+
+    /**
+     * Пишет снимок, а затем индекс, помеченный контрольной суммой этого снимка. Если между двумя записями случится
+     * сбой, метка не совпадёт с файлом сохранения и индекс при загрузке будет просто построен заново.
+     */
+    protected void write(byte[] snapshot, byte[] searchIndex) {
+        write(snapshot);
+        if (searchIndex == null) {
+            return;
+        }
+        byte[] stamp = (SnapshotFiles.checksumOf(snapshot) + "\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] content = Arrays.copyOf(stamp, stamp.length + searchIndex.length);
+        System.arraycopy(searchIndex, 0, content, stamp.length, searchIndex.length);
+        SnapshotFiles.writeAtomically(searchIndexPath(), content);
+    }
+
+    private static void write(File file, byte[] snapshot) {
+        SnapshotFiles.writeAtomically(file.toPath(), snapshot);
+    }
+
+    /**
+     * Загружает файл сохранения, а если он повреждён — последнюю целую резервную копию.
+     * Если не удалось загрузить ни один снимок, бросается ошибка загрузки основного файла.
+     */
     private void initializeState() {
         Path saveFilePath = saveFile.toPath();
-        if (Files.exists(saveFilePath)) {
-            try (BufferedReader br = new BufferedReader(new FileReader(saveFile))) {
-                if (br.ready() && br.readLine().equals(SCV_HEAD.trim())) {
-                    while (br.ready()) {
-                        String taskLine = br.readLine();
-                        importTaskFromString(taskLine);
-                    }
+        SnapshotFiles.deleteTemporary(saveFilePath);
+        RuntimeException failure = null;
+        for (Path candidate : SnapshotFiles.candidates(saveFilePath)) {
+            try {
+                SnapshotFiles.checkIntact(candidate);
+                load(candidate);
+                recoveredFromBackup = !candidate.equals(saveFilePath);
+                if (persistSearchIndex) {
+                    loadSearchIndex(candidate);
+                }
+                return;
+            } catch (ManagerReadSaveFileException | ManagerImportTaskException e) {
+                if (failure == null) {
+                    failure = e;
                 }
-            } catch (IOException e) {
-                throw new ManagerReadSaveFileException("Не удалось прочитать файл сохранения: " + e);
+                resetState();
             }
         }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void load(Path path) {
+        if (BinarySnapshotReader.isBinary(path)) {
+            loadStats = BinarySnapshotReader.read(path, this::importTask);
+        } else if (JsonSnapshotReader.isJson(path)) {
+            loadStats = JsonSnapshotReader.read(path, this::importTask);
+        } else {
+            loadStats = MappedCsvReader.read(path, SCV_HEAD.trim(), this::importTask);
+        }
+    }
+
+    /**
+     * Читает сохранённый индекс, если он записан для загруженного снимка. Устаревший или повреждённый индекс
+     * не ошибка: он построится заново при первом поиске.
+     */
+    private void loadSearchIndex(Path snapshot) {
+        Path path = searchIndexPath();
+        String expected = SnapshotFiles.readChecksum(snapshot);
+        if (expected == null || !Files.exists(path)) {
+            return;
+        }
+        try {
+            SnapshotFiles.checkIntact(path);
+            byte[] content = Files.readAllBytes(path);
+            int newLine = 0;
+            while (newLine < content.length && content[newLine] != '\n') {
+                newLine++;
+            }
+            if (expected.equals(new String(content, 0, newLine, StandardCharsets.US_ASCII))) {
+                textIndex.load(content, newLine + 1);
+            }
+        } catch (IOException | ManagerReadSaveFileException e) {
+            textIndex.clear();
+        }
+    }
+
+    private Path searchIndexPath() {
+        return SnapshotFiles.sibling(saveFile.toPath(), SEARCH_INDEX_SUFFIX);
+    }
+
+    private void resetState() {
+        tasks.clear();
+        epics.clear();
+        subTasks.clear();
+        prioritisedTasks.clear();
+        taskIndex.clear();
+        textIndex.clear();
+        lastId = 0;
+        loadStats = LoadStats.EMPTY;
+    }
+
+    public LoadStats getLoadStats() {
+        return loadStats;
+    }
+
+    /**
+     * Было ли состояние восстановлено из резервной копии, потому что основной файл повреждён.
+     */
+    public boolean isRecoveredFromBackup() {
+        return recoveredFromBackup;
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
         return new FileBackedTaskManager(file);
     }
 
-    private void importTaskFromString(String saveLine) {
-        String[] split = saveLine.split(",");
-        int id = Integer.parseInt(split[0]);
-        TaskType type = TaskType.valueOf(split[1]);
-        String title = split[2];
-        String description = split[4];
-        Status status = Status.valueOf(split[3]);
-        Duration duration = Duration.ofMinutes(Long.parseLong(split[5]));
-        LocalDateTime startTime = LocalDateTime.parse(split[6], DATE_TIME_FORMATER);
-        LocalDateTime endTime = LocalDateTime.parse(split[7], DATE_TIME_FORMATER);
-        int epicId = 0;
-        if (split.length == 9) {
-            epicId = Integer.parseInt(split[8]);
+    public static FileBackedTaskManager loadFromFile(File file, SaveFormat format) {
+        return new FileBackedTaskManager(file, format);
+    }
+
+    /**
+     * Перезаписывает текущее состояние в другой файл в указанном формате.
+     */
+    public void saveAs(File file, SaveFormat format) {
+        write(file, snapshot(format));
+    }
+
+    protected void importTaskFromString(String saveLine) {
+        TaskRow row = new TaskRow();
+        try {
+            String[] split = TaskUtils.splitCsvRow(saveLine);
+            row.id = Integer.parseInt(split[0]);
+            row.type = TaskType.valueOf(split[1]);
+            row.title = split[2];
+            row.status = Status.valueOf(split[3]);
+            row.description = split[4];
+            row.durationMinutes = Long.parseLong(split[5]);
+            row.startTime = stringToDate(split[6]);
+            row.endTime = stringToDate(split[7]);
+            if (split.length == 9 && !split[8].isEmpty()) {
+                row.epicId = Integer.parseInt(split[8]);
+            }
+        } catch (RuntimeException e) {
+            throw new ManagerImportTaskException("Не удалось считать задачу из строки: " + saveLine);
         }
+        importTask(row);
+    }
 
-        switch (type) {
-            case TASK -> {
-                Task task = new Task(title, description, status, id, duration, startTime);
-                tasks.put(task.getId(), task);
-                updateLastId(task.getId());
-                if (task.getStartTime() != null) {
-                    prioritisedTasks.add(task.copy());
+    void importTask(TaskRow row) {
+        int id = row.id;
+        String title = row.title;
+        String description = row.description;
+        Status status = row.status;
+        Duration duration = Duration.ofMinutes(row.durationMinutes);
+        LocalDateTime startTime = row.startTime;
+        LocalDateTime endTime = row.endTime;
+        int epicId = row.epicId;
+        if (id < 0 || id > ArrayIdMap.MAX_ID) {
+            throw new ManagerImportTaskException("Не удалось считать задачу " + id + ": id вне диапазона 0.."
+                    + ArrayIdMap.MAX_ID);
+        }
+        try {
+            switch (row.type) {
+                case TASK -> {
+                    Task task = new Task(title, description, status, id, duration, startTime).snapshot();
+                    reindex(tasks.put(task.getId(), task), task);
+                    updateLastId(task.getId());
+                    prioritisedTasks.remove(task.getId());
+                    if (task.getStartTime() != null) {
+                        prioritisedTasks.add(task);
+                    }
+                    return;
                 }
-                return;
-            }
-            case EPIC -> {
-                Epic epic = new Epic(title, description, status, id, new ArrayList<>(), duration, startTime, endTime);
-                epics.put(epic.getId(), epic);
-                updateLastId(epic.getId());
-                return;
-            }
-            case SUBTASK -> {
-                SubTask subTask = new SubTask(title, description, status, id, duration, startTime, epics.get(epicId));
-                epics.get(subTask.getCurrentEpic().getId()).addSubTask(subTask);
-                subTasks.put(subTask.getId(), subTask);
-                updateLastId(subTask.getId());
-                if (subTask.getStartTime() != null) {
-                    prioritisedTasks.add(subTask.copy());
+                case EPIC -> {
+                    if (epics.containsKey(id)) {
+                        changeEpic(id, existing -> {
+                            existing.setTitle(title);
+                            existing.setDescription(description);
+                        });
+                        return;
+                    }
+                    Epic epic = new Epic(title, description, status, id, new ArrayList<>(), duration, startTime, endTime).snapshot();
+                    reindex(epics.put(epic.getId(), epic), epic);
+                    updateLastId(epic.getId());
+                    return;
+                }
+                case SUBTASK -> {
+                    if (!epics.containsKey(epicId)) {
+                        break;
+                    }
+                    SubTask previous = subTasks.get(id);
+                    if (previous != null) {
+                        changeEpic(previous.getCurrentEpic().getId(), epic -> epic.clearSubTask(previous));
+                    }
+                    SubTask subTask = new SubTask(title, description, status, id, duration, startTime, epics.get(epicId)).snapshot();
+                    changeEpic(epicId, epic -> epic.addSubTask(subTask));
+                    reindex(subTasks.put(subTask.getId(), subTask), subTask);
+                    updateLastId(subTask.getId());
+                    prioritisedTasks.remove(subTask.getId());
+                    if (subTask.getStartTime() != null) {
+                        prioritisedTasks.add(subTask);
+                    }
+                    return;
                 }
-                return;
             }
+            throw new ManagerImportTaskException("Не удалось считать задачу " + id + ": не найден эпик " + epicId);
+        } catch (IllegalArgumentException e) {
+            throw new ManagerImportTaskException("Не удалось считать задачу " + id + ": " + e.getMessage());
         }
-        throw new ManagerImportTaskException("Не удалось считать задачу из строки: " + saveLine);
     }
 
     private void updateLastId(int id) {
@@ -0,0 +1,23 @@
+package manager;
+
+import java.util.Map;
+
+/**
+ * Хранилище задач по id с доступом по примитивному {@code int}.
+ * <p>
+ * Реализации по умолчанию упаковывают id и подходят для любой {@link Map}; {@link TaskStore} переопределяет их
+ * прямым обращением к массиву.
+ */
+public interface IdMap<V> extends Map<Integer, V> {
+    default V get(int id) {
+        return get((Object) id);
+    }
+
+    default boolean containsKey(int id) {
+        return containsKey((Object) id);
+    }
+
+    default V remove(int id) {
+        return remove((Object) id);
+    }
+}
@@ -1,28 +1,65 @@
 package manager;
 
+import exceptions.ManagerBatchException;
 import exceptions.ManagerTimeCrossingException;
 import history.HistoryManager;
+import history.InMemoryHistoryManager;
 import tasks.Epic;
+import tasks.Status;
 import tasks.SubTask;
 import tasks.Task;
+import tasks.TaskType;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class InMemoryTaskManager implements TaskManager {
-    private final Comparator<Task> priorityComparator = Comparator.comparing(Task::getStartTime);
-    protected final HashMap<Integer, Task> tasks = new HashMap<>();
-    protected final HashMap<Integer, Epic> epics = new HashMap<>();
-    protected final HashMap<Integer, SubTask> subTasks = new HashMap<>();
-    protected final HistoryManager historyManager = Managers.getDefaultHistory();
-    protected TreeSet<Task> prioritisedTasks = new TreeSet<>(priorityComparator);
+    protected final IdMap<Task> tasks;
+    protected final IdMap<Epic> epics;
+    protected final IdMap<SubTask> subTasks;
+    protected final HistoryManager historyManager;
+    protected final TimeSlotIndex prioritisedTasks = new TimeSlotIndex();
+    protected final TaskIndex taskIndex = new TaskIndex();
+    protected final TextIndex textIndex = new TextIndex();
 
     protected int lastId;
 
+    public InMemoryTaskManager() {
+        this(new TaskStore(), Managers.getDefaultHistory());
+    }
+
+    /**
+     * Менеджер с ограниченной историей, которая хранит только id и показывает актуальные версии задач.
+     */
+    public InMemoryTaskManager(int historyCapacity) {
+        TaskStore store = new TaskStore();
+        this.tasks = store.view(TaskType.TASK);
+        this.epics = store.view(TaskType.EPIC);
+        this.subTasks = store.view(TaskType.SUBTASK);
+        this.historyManager = new InMemoryHistoryManager(historyCapacity, this::findTask);
+    }
+
+    private InMemoryTaskManager(TaskStore store, HistoryManager historyManager) {
+        this(store.view(TaskType.TASK), store.view(TaskType.EPIC), store.view(TaskType.SUBTASK), historyManager);
+    }
+
+    protected InMemoryTaskManager(IdMap<Task> tasks, IdMap<Epic> epics, IdMap<SubTask> subTasks,
+                                  HistoryManager historyManager) {
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subTasks = subTasks;
+        this.historyManager = historyManager;
+    }
+
     @Override
     public ArrayList<Task> getTasks() {
         return new ArrayList<>(tasks.values());
@@ -40,76 +77,188 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public ArrayList<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritisedTasks);
+        return prioritisedTasks.toList();
+    }
+
+    @Override
+    public ArrayList<Task> getCrossingTasks(LocalDateTime from, LocalDateTime to) {
+        return prioritisedTasks.getCrossing(from, to);
+    }
+
+    @Override
+    public ArrayList<TimeSlot> busyIntervals(LocalDateTime from, LocalDateTime to) {
+        return prioritisedTasks.getBusy(from, to);
+    }
+
+    @Override
+    public LocalDateTime nextFreeSlot(Duration duration, LocalDateTime after) {
+        if (duration == null || duration.isNegative() || after == null) {
+            throw new IllegalArgumentException("Нужны неотрицательная длительность и время, от которого искать");
+        }
+        return prioritisedTasks.findFree(duration, after);
+    }
+
+    @Override
+    public Stream<Task> streamTasks() {
+        return tasks.values().stream();
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return epics.values().stream();
+    }
+
+    @Override
+    public Stream<SubTask> streamSubTasks() {
+        return subTasks.values().stream();
+    }
+
+    @Override
+    public Stream<Task> streamPrioritizedTasks() {
+        return prioritisedTasks.stream();
+    }
+
+    @Override
+    public ArrayList<Task> getTasksPage(int afterId, int limit) {
+        return page(tasks, afterId, limit);
+    }
+
+    @Override
+    public ArrayList<Epic> getEpicsPage(int afterId, int limit) {
+        return page(epics, afterId, limit);
+    }
+
+    @Override
+    public ArrayList<SubTask> getSubTasksPage(int afterId, int limit) {
+        return page(subTasks, afterId, limit);
+    }
+
+    @Override
+    public ArrayList<Task> getPrioritizedTasks(LocalDateTime from, int limit) {
+        checkLimit(limit);
+        return prioritisedTasks.getStartingFrom(from, limit);
+    }
+
+    @Override
+    public ArrayList<Task> getPrioritizedTasksAfter(LocalDateTime start, LocalDateTime end, int id, int limit) {
+        checkLimit(limit);
+        return prioritisedTasks.getStartingAfter(start, end, id, limit);
+    }
+
+    @Override
+    public ArrayList<Task> findTasksByStatus(Status status) {
+        return resolve(tasks, index().idsByStatus(TaskType.TASK, status));
+    }
+
+    @Override
+    public ArrayList<Epic> findEpicsByStatus(Status status) {
+        return resolve(epics, index().idsByStatus(TaskType.EPIC, status));
+    }
+
+    @Override
+    public ArrayList<SubTask> findSubTasksByStatus(Status status) {
+        return resolve(subTasks, index().idsByStatus(TaskType.SUBTASK, status));
+    }
+
+    @Override
+    public ArrayList<Task> findByTitlePrefix(String prefix, int limit) {
+        checkLimit(limit);
+        return resolve(index().idsByTitlePrefix(prefix, limit));
+    }
+
+    @Override
+    public ArrayList<Task> search(String query, int limit) {
+        checkLimit(limit);
+        return resolve(searchIndex().search(query, limit));
     }
 
     @Override
     public void clearTasks() {
         clearTasksFromPrioritized();
+        historyManager.removeAll(tasks.keySet());
+        textIndex.removeAll(tasks);
         tasks.clear();
+        taskIndex.removeAll(TaskType.TASK);
     }
 
     @Override
     public void clearSubTasks() {
         clearSubTasksFromPrioritized();
-        epics.values().forEach(Epic::clearSubTasks);
+        historyManager.removeAll(subTasks.keySet());
+        epics.keySet().forEach(epicId -> changeEpic(epicId, Epic::clearSubTasks));
+        textIndex.removeAll(subTasks);
         subTasks.clear();
+        taskIndex.removeAll(TaskType.SUBTASK);
     }
 
     @Override
     public void clearEpics() {
         clearSubTasksFromPrioritized();
+        historyManager.removeAll(subTasks.keySet());
+        historyManager.removeAll(epics.keySet());
+        textIndex.removeAll(subTasks);
+        textIndex.removeAll(epics);
         subTasks.clear();
         epics.clear();
+        taskIndex.removeAll(TaskType.SUBTASK);
+        taskIndex.removeAll(TaskType.EPIC);
     }
 
     @Override
-    public Task getTaskById(Integer id) {
-        Task result = tasks.get(id).copy();
+    public Task getTaskById(int id) {
+        Task result = tasks.get(id);
         addToHistory(result);
         return result;
     }
 
     @Override
-    public Epic getEpicById(Integer id) {
-        Epic result = epics.get(id).copy();
+    public Epic getEpicById(int id) {
+        Epic result = epics.get(id);
         addToHistory(result);
         return result;
     }
 
     @Override
-    public SubTask getSubTaskById(Integer id) {
-        SubTask result = subTasks.get(id).copy();
+    public SubTask getSubTaskById(int id) {
+        SubTask result = subTasks.get(id);
         addToHistory(result);
         return result;
     }
 
     @Override
-    public void clearTaskById(Integer id) {
-        prioritisedTasks.remove(tasks.get(id));
-        tasks.remove(id);
+    public void clearTaskById(int id) {
+        prioritisedTasks.remove(id);
+        historyManager.remove(id);
+        reindex(tasks.remove(id), null);
     }
 
     @Override
-    public void clearSubTaskById(Integer id) {
+    public void clearSubTaskById(int id) {
         SubTask subTask = subTasks.get(id);
-        prioritisedTasks.remove(subTask);
-        subTask.getCurrentEpic().clearSubTask(subTask);
-        subTasks.remove(id);
+        prioritisedTasks.remove(id);
+        changeEpic(subTask.getCurrentEpic().getId(), epic -> epic.clearSubTask(subTask));
+        historyManager.remove(id);
+        reindex(subTasks.remove(id), null);
     }
 
     @Override
-    public void clearEpicById(Integer id) {
+    public void clearEpicById(int id) {
         epics.get(id).getSubTasks().forEach(subTask -> {
-            prioritisedTasks.remove(subTask);
-            subTasks.remove(subTask.getId());
+            prioritisedTasks.remove(subTask.getId());
+            historyManager.remove(subTask.getId());
+            reindex(subTasks.remove(subTask.getId()), null);
         });
-        epics.remove(id);
+        historyManager.remove(id);
+        reindex(epics.remove(id), null);
     }
 
+    /**
+     * Подзадачи берутся из сохранённого эпика с тем же id: переданный объект может быть устаревшим снимком.
+     */
     @Override
     public ArrayList<SubTask> getSubTasksByEpic(Epic epic) {
-        return new ArrayList<>(epic.getSubTasks());
+        Epic stored = epics.get(epic.getId());
+        return (stored == null ? epic : stored).getSubTasks();
     }
 
     @Override
@@ -118,26 +267,15 @@ public class InMemoryTaskManager implements TaskManager {
             return null;
         }
         validateTime(task);
-        task.setId(lastId++);
-        Task added = task.copy();
-        tasks.put(task.getId(), added);
-        if (added.getStartTime() != null) {
-            prioritisedTasks.add(added.copy());
-        }
-        return added.copy();
+        task.setId(nextId());
+        return storeTask(task);
     }
 
     @Override
     public Task update(Task task) {
         if (task != null && tasks.containsKey(task.getId())) {
-            prioritisedTasks.remove(task);
-            validateTime(task);
-            Task added = task.copy();
-            tasks.put(task.getId(), added);
-            if (added.getStartTime() != null) {
-                prioritisedTasks.add(added.copy());
-            }
-            return added.copy();
+            revalidateTime(task);
+            return storeTask(task);
         }
         return null;
     }
@@ -147,18 +285,14 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) {
             return null;
         }
-        epic.setId(lastId++);
-        Epic added = epic.copy();
-        epics.put(epic.getId(), added);
-        return added.copy();
+        epic.setId(nextId());
+        return storeEpic(epic);
     }
 
     @Override
     public Epic update(Epic epic) {
         if (epic != null && epics.containsKey(epic.getId())) {
-            Epic added = epic.copy();
-            epics.put(epic.getId(), added);
-            return added.copy();
+            return storeUpdatedEpic(epic);
         }
         return null;
     }
@@ -167,14 +301,8 @@ public class InMemoryTaskManager implements TaskManager {
     public SubTask create(SubTask subTask) {
         if (subTask != null && epics.containsKey(subTask.getCurrentEpic().getId())) {
             validateTime(subTask);
-            subTask.setId(lastId++);
-            epics.get(subTask.getCurrentEpic().getId()).addSubTask(subTask);
-            SubTask added = subTask.copy();
-            subTasks.put(subTask.getId(), added);
-            if (added.getStartTime() != null) {
-                prioritisedTasks.add(added.copy());
-            }
-            return added.copy();
+            subTask.setId(nextId());
+            return storeNewSubTask(subTask);
         }
         return null;
     }
@@ -182,24 +310,35 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public SubTask update(SubTask subTask) {
         if (subTask != null && subTasks.containsKey(subTask.getId()) && epics.containsKey(subTask.getCurrentEpic().getId())) {
-            prioritisedTasks.remove(subTask);
-            validateTime(subTask);
-            SubTask added = subTask.copy();
-            Epic updatedEpic = subTask.getCurrentEpic();
-            if (subTasks.get(subTask.getId()).getCurrentEpic() == subTask.getCurrentEpic()) {
-                updatedEpic.updateSubTask(added);
-            } else {
-                subTasks.get(subTask.getId()).getCurrentEpic().clearSubTask(subTask);
-                updatedEpic.addSubTask(added);
+            revalidateTime(subTask);
+            return storeUpdatedSubTask(subTask);
+        }
+        return null;
+    }
+
+    @Override
+    public ArrayList<Task> applyBatch(Batch batch) {
+        List<Batch.Operation> operations = batch.getOperations();
+        validateBatch(operations);
+        for (Batch.Operation operation : operations) {
+            if (operation.kind() == Batch.Kind.UPDATE) {
+                prioritisedTasks.remove(operation.task().getId());
             }
-            update(updatedEpic);
-            subTasks.put(subTask.getId(), added);
-            if (added.getStartTime() != null) {
-                prioritisedTasks.add(added.copy());
+        }
+        ArrayList<Task> result = new ArrayList<>(operations.size());
+        for (Batch.Operation operation : operations) {
+            Task task = operation.task();
+            boolean isNew = operation.kind() == Batch.Kind.CREATE;
+            if (isNew) {
+                task.setId(nextId());
             }
-            return added.copy();
+            result.add(switch (task) {
+                case SubTask subTask -> isNew ? storeNewSubTask(subTask) : storeUpdatedSubTask(subTask);
+                case Epic epic -> isNew ? storeEpic(epic) : storeUpdatedEpic(epic);
+                default -> storeTask(task);
+            });
         }
-        return null;
+        return result;
     }
 
     @Override
@@ -207,27 +346,302 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory();
     }
 
+    @Override
+    public ArrayList<Task> getHistory(int offset, int limit) {
+        checkLimit(limit);
+        return historyManager.getHistory(offset, limit);
+    }
+
+    /**
+     * Ищет задачу любого типа по id, не затрагивая историю.
+     */
+    protected Task findTask(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = subTasks.get(id);
+        }
+        return task != null ? task : epics.get(id);
+    }
+
+    /**
+     * Выдаёт следующий id. Проверка лимита идёт до любых изменений, поэтому исчерпание id не оставляет
+     * полусозданных задач.
+     */
+    protected int nextId() {
+        checkIdsLeft(1);
+        return lastId++;
+    }
+
+    /**
+     * Наибольший id, который принимают хранилища менеджера.
+     */
+    protected int maxId() {
+        return ArrayIdMap.MAX_ID;
+    }
+
+    private void checkIdsLeft(int count) {
+        if ((long) idBound() + count - 1 > maxId()) {
+            throw new IllegalStateException("Исчерпаны id задач: наибольший допустимый id — " + maxId());
+        }
+    }
+
+    /**
+     * Граница выданных id: все существующие id меньше неё.
+     */
+    protected int idBound() {
+        return lastId;
+    }
+
+    /**
+     * Id выдаются подряд, поэтому страницу дешевле собрать перебором id после курсора, чем сортировать ключи.
+     * Если задач этого типа заметно меньше, чем id впереди, выгоднее отобрать и отсортировать ключи.
+     */
+    private <T extends Task> ArrayList<T> page(IdMap<T> source, int afterId, int limit) {
+        checkLimit(limit);
+        int from = Math.max(afterId + 1, 0);
+        int bound = idBound();
+        if ((long) bound - from > 4L * source.size()) {
+            ArrayList<T> result = new ArrayList<>(Math.min(limit, source.size()));
+            source.keySet().stream()
+                    .filter(id -> id >= from)
+                    .sorted()
+                    .limit(limit)
+                    .forEach(id -> {
+                        T task = source.get(id);
+                        if (task != null) {
+                            result.add(task);
+                        }
+                    });
+            return result;
+        }
+        ArrayList<T> result = new ArrayList<>(Math.min(limit, source.size()));
+        for (int id = from; id < bound && result.size() < limit; id++) {
+            T task = source.get(id);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Вторичный индекс, построенный при первом обращении.
+     */
+    private TaskIndex index() {
+        if (!taskIndex.isEnabled()) {
+            taskIndex.build(tasks.values(), epics.values(), subTasks.values());
+        }
+        return taskIndex;
+    }
+
+    /**
+     * Полнотекстовый индекс, построенный при первом обращении.
+     */
+    protected TextIndex searchIndex() {
+        if (!textIndex.isEnabled()) {
+            textIndex.build(tasks.values(), epics.values(), subTasks.values());
+        }
+        return textIndex;
+    }
+
+    /**
+     * Сообщает вторичным индексам о замене снимка задачи: {@code previous == null} — задача создана,
+     * {@code current == null} — удалена.
+     */
+    protected void reindex(Task previous, Task current) {
+        taskIndex.update(previous, current);
+        textIndex.update(previous, current);
+    }
+
+    private ArrayList<Task> resolve(int[] ids) {
+        ArrayList<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task task = findTask(id);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    private static <T extends Task> ArrayList<T> resolve(IdMap<T> source, int[] ids) {
+        ArrayList<T> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            T task = source.get(id);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Размер страницы не может быть отрицательным: " + limit);
+        }
+    }
+
     private void addToHistory(Task task) {
         historyManager.add(task);
     }
 
+    /**
+     * Заменяет эпик изменённой копией. Хранимые эпики — неизменяемые снимки, а копия разделяет с ними подзадачи,
+     * поэтому замена стоит O(1) независимо от размера эпика.
+     */
+    protected Epic changeEpic(int epicId, Consumer<Epic> change) {
+        Epic epic = epics.get(epicId).copy();
+        change.accept(epic);
+        Epic stored = epic.snapshot();
+        reindex(epics.put(epicId, stored), stored);
+        return stored;
+    }
+
+    private Task storeTask(Task task) {
+        Task stored = task.snapshot();
+        Task previous = tasks.put(stored.getId(), stored);
+        reindex(previous, stored);
+        schedule(previous, stored);
+        return stored.copy();
+    }
+
+    private Epic storeEpic(Epic epic) {
+        Epic stored = epic.snapshot();
+        reindex(epics.put(stored.getId(), stored), stored);
+        return stored.copy();
+    }
+
+    private Epic storeUpdatedEpic(Epic epic) {
+        return changeEpic(epic.getId(), stored -> {
+            stored.setTitle(epic.getTitle());
+            stored.setDescription(epic.getDescription());
+        }).copy();
+    }
+
+    private SubTask storeNewSubTask(SubTask subTask) {
+        SubTask stored = subTask.snapshot();
+        changeEpic(stored.getCurrentEpic().getId(), epic -> epic.addSubTask(stored));
+        reindex(subTasks.put(stored.getId(), stored), stored);
+        schedule(null, stored);
+        return stored.copy();
+    }
+
+    private SubTask storeUpdatedSubTask(SubTask subTask) {
+        SubTask stored = subTask.snapshot();
+        SubTask previous = subTasks.get(stored.getId());
+        int previousEpicId = previous.getCurrentEpic().getId();
+        int epicId = stored.getCurrentEpic().getId();
+        if (previousEpicId == epicId) {
+            changeEpic(epicId, epic -> epic.updateSubTask(stored));
+        } else {
+            changeEpic(previousEpicId, epic -> epic.clearSubTask(previous));
+            changeEpic(epicId, epic -> epic.addSubTask(stored));
+        }
+        reindex(subTasks.put(stored.getId(), stored), stored);
+        schedule(previous, stored);
+        return stored.copy();
+    }
+
+    /**
+     * Переносит задачу в индексе по времени. Если ни прежняя, ни новая версия не запланированы, индекс
+     * не трогается: так создание задачи без времени обходится без блокировки индекса в {@link ConcurrentTaskManager}.
+     */
+    private void schedule(Task previous, Task stored) {
+        if (previous != null && previous.getStartTime() != null) {
+            prioritisedTasks.remove(stored.getId());
+        }
+        if (stored.getStartTime() != null) {
+            prioritisedTasks.add(stored);
+        }
+    }
+
+    /**
+     * Проверяет пакет целиком до применения: существование изменяемых задач и эпиков, а затем пересечения
+     * по времени. Пересечения внутри пакета ищутся сортировкой и одним проходом, пересечения с уже
+     * запланированными задачами — через индекс, без учёта задач, которые пакет сам переносит.
+     */
+    private void validateBatch(List<Batch.Operation> operations) {
+        Set<Integer> updatedIds = new HashSet<>();
+        Set<Epic> createdEpics = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayList<Task> timed = new ArrayList<>();
+        for (Batch.Operation operation : operations) {
+            Task task = operation.task();
+            if (task == null) {
+                throw new ManagerBatchException("Пакет содержит пустую задачу");
+            }
+            boolean isNew = operation.kind() == Batch.Kind.CREATE;
+            if (!isNew && !updatedIds.add(task.getId())) {
+                throw new ManagerBatchException("Задача " + task.getId() + " изменяется в пакете несколько раз");
+            }
+            switch (task) {
+                case SubTask subTask -> {
+                    Epic epic = subTask.getCurrentEpic();
+                    if (!createdEpics.contains(epic) && !epics.containsKey(epic.getId())) {
+                        throw new ManagerBatchException("Не найден эпик для подзадачи \"" + subTask.getTitle() + "\"");
+                    }
+                    if (!isNew && !subTasks.containsKey(subTask.getId())) {
+                        throw new ManagerBatchException("Не найдена подзадача " + subTask.getId());
+                    }
+                }
+                case Epic epic -> {
+                    if (isNew) {
+                        createdEpics.add(epic);
+                    } else if (!epics.containsKey(epic.getId())) {
+                        throw new ManagerBatchException("Не найден эпик " + epic.getId());
+                    }
+                }
+                default -> {
+                    if (!isNew && !tasks.containsKey(task.getId())) {
+                        throw new ManagerBatchException("Не найдена задача " + task.getId());
+                    }
+                }
+            }
+            if (!(task instanceof Epic) && task.getStartTime() != null) {
+                timed.add(task);
+            }
+        }
+
+        checkIdsLeft((int) operations.stream().filter(operation -> operation.kind() == Batch.Kind.CREATE).count());
+        timed.sort(Comparator.comparing(Task::getStartTime).thenComparing(Task::getEndTime));
+        Task latestEnding = null;
+        for (Task task : timed) {
+            if (latestEnding != null && latestEnding.getEndTime().isAfter(task.getStartTime())
+                    && latestEnding.getStartTime().isBefore(task.getEndTime())) {
+                throw new ManagerTimeCrossingException("Задачи пакета пересекаются по времени между собой");
+            }
+            boolean crossesScheduled = updatedIds.isEmpty() ? prioritisedTasks.isCrossing(task)
+                    : prioritisedTasks.getCrossing(task.getStartTime(), task.getEndTime()).stream()
+                    .anyMatch(scheduled -> !updatedIds.contains(scheduled.getId()));
+            if (crossesScheduled) {
+                throw new ManagerTimeCrossingException("Задача пересекается по времени с одной из существующих");
+            }
+            if (latestEnding == null || task.getEndTime().isAfter(latestEnding.getEndTime())) {
+                latestEnding = task;
+            }
+        }
+    }
+
     private void clearTasksFromPrioritized() {
-        prioritisedTasks = prioritisedTasks.stream().filter(task -> !tasks.containsValue(task)).collect(Collectors.toCollection(() -> new TreeSet<>(priorityComparator)));
+        prioritisedTasks.removeAll(TaskType.TASK);
     }
 
     private void clearSubTasksFromPrioritized() {
-        prioritisedTasks = prioritisedTasks.stream().filter(task -> !subTasks.containsValue(task)).collect(Collectors.toCollection(() -> new TreeSet<>(priorityComparator)));
+        prioritisedTasks.removeAll(TaskType.SUBTASK);
     }
 
     private void validateTime(Task task) {
-        if (task.getStartTime() != null && getPrioritizedTasks().stream().anyMatch(it -> isTimeCrossing(it, task))) {
+        if (prioritisedTasks.isCrossing(task)) {
             throw new ManagerTimeCrossingException("Задача пересекается по времени с одной из существующих");
         }
     }
 
-    private boolean isTimeCrossing(Task task1, Task task2) {
-        LocalDateTime task1End = task1.getEndTime();
-        LocalDateTime task2End = task2.getEndTime();
-        return task1.getStartTime().isBefore(task2End) && task1End.isAfter(task2.getStartTime());
+    private void revalidateTime(Task task) {
+        Task previous = prioritisedTasks.remove(task.getId());
+        try {
+            validateTime(task);
+        } catch (ManagerTimeCrossingException e) {
+            prioritisedTasks.add(previous);
+            throw e;
+        }
     }
 }
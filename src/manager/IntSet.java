@@ -0,0 +1,143 @@
+package manager;
+
+import java.util.Arrays;
+
+/**
+ * Множество неотрицательных {@code int} без упаковки в {@link Integer}.
+ * <p>
+ * Открытая адресация с линейным пробированием и сдвигом хвоста цепочки при удалении, как в
+ * {@code history.IntObjectMap}. Таблица сжимается, когда заполнена меньше чем на восьмую часть, поэтому обход
+ * стоит O(размер), а не O(самый большой размер за всё время).
+ */
+class IntSet {
+    private static final int MIN_CAPACITY = 4;
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int mask;
+    private int size;
+
+    IntSet() {
+        allocate(MIN_CAPACITY);
+    }
+
+    boolean add(int key) {
+        checkKey(key);
+        int i = index(key);
+        for (; keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return false;
+            }
+        }
+        keys[i] = key;
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        return true;
+    }
+
+    boolean remove(int key) {
+        if (key < 0) {
+            return false;
+        }
+        for (int i = index(key); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                shiftBack(i);
+                size--;
+                if (keys.length > MIN_CAPACITY && size * 8 < keys.length) {
+                    resize(keys.length / 2);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean contains(int key) {
+        if (key < 0) {
+            return false;
+        }
+        for (int i = index(key); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Элементы по возрастанию.
+     */
+    int[] toSortedArray() {
+        int[] result = new int[size];
+        int j = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                result[j++] = key;
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private void shiftBack(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (keys[i] == EMPTY) {
+                break;
+            }
+            int home = index(keys[i]);
+            boolean movable = hole <= i ? home <= hole || home > i : home <= hole && home > i;
+            if (movable) {
+                keys[hole] = keys[i];
+                hole = i;
+            }
+        }
+        keys[hole] = EMPTY;
+    }
+
+    private int index(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        allocate(capacity);
+        for (int key : oldKeys) {
+            if (key != EMPTY) {
+                int j = index(key);
+                while (keys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private static void checkKey(int key) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Ключ не может быть отрицательным: " + key);
+        }
+    }
+}
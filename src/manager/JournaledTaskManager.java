@@ -0,0 +1,354 @@
+package manager;
+
+import exceptions.ManagerReadSaveFileException;
+import exceptions.ManagerSaveException;
+import tasks.Task;
+import tasks.TaskType;
+import tasks.TaskUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Менеджер, который не переписывает файл сохранения на каждое изменение, а дописывает одну запись в журнал.
+ * <p>
+ * Файл сохранения служит снимком. Когда в журнале набирается {@code compactThreshold} записей, журнал
+ * откладывается в {@code .journal.old}, а новый снимок пишется в фоне; после записи снимка старый журнал удаляется.
+ * При запуске поверх снимка проигрываются {@code .journal.old} и {@code .journal}. Если программа упала после
+ * записи снимка, но до удаления старого журнала, его записи проигрываются поверх снимка, который их уже содержит.
+ * Записи задают итоговое состояние задачи, а не изменение, поэтому повторное проигрывание приводит к тому же
+ * результату; единственное, что в таком повторе может не сойтись, — подзадача эпика, удалённого позже в том же
+ * журнале, — при проигрывании пропускается, её удаление всё равно идёт следом.
+ * <p>
+ * Если запись снимка не удалась, старый журнал не удаляется, а при следующей попытке текущий журнал дописывается
+ * в его конец: старый журнал никогда не заменяется, пока его записи не попали в снимок.
+ * <p>
+ * Каждая запись заканчивается переводом строки. Если процесс упал посреди дозаписи, последняя запись останется
+ * без него: при запуске такой обрывок отбрасывается и отрезается от файла, а все записи до него проигрываются.
+ * Пакет изменений пишется одной дозаписью, но при обрыве из него восстанавливаются только целые записи.
+ * <p>
+ * По умолчанию каждая дозапись сбрасывается на диск ({@link FileChannel#force}) до возврата из метода менеджера,
+ * поэтому подтверждённое изменение переживает и падение машины. С {@code syncEachRecord = false} запись только
+ * передаётся ОС: это во много раз быстрее, но при отключении питания теряются изменения, которые ОС ещё
+ * не успела записать; падение самого процесса их не теряет.
+ */
+public class JournaledTaskManager extends FileBackedTaskManager implements AutoCloseable {
+    public static final int DEFAULT_COMPACT_THRESHOLD = 1000;
+    private static final String UPSERT = "+";
+    private static final String REMOVE = "-";
+    private static final String CLEAR = "!";
+
+    private final Path journalPath;
+    private final Path oldJournalPath;
+    private final int compactThreshold;
+    private final boolean syncEachRecord;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private FileChannel journal;
+    private Future<?> compaction;
+    private int journalSize;
+    private boolean replaying;
+
+    public JournaledTaskManager(File saveFile) {
+        this(saveFile, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    public JournaledTaskManager(File saveFile, int compactThreshold) {
+        this(saveFile, SaveFormat.CSV, compactThreshold);
+    }
+
+    public JournaledTaskManager(File saveFile, SaveFormat format, int compactThreshold) {
+        this(saveFile, format, compactThreshold, true);
+    }
+
+    /**
+     * @param syncEachRecord сбрасывать ли каждую запись журнала на диск до возврата из метода менеджера
+     */
+    public JournaledTaskManager(File saveFile, SaveFormat format, int compactThreshold, boolean syncEachRecord) {
+        super(saveFile, format);
+        this.journalPath = Path.of(saveFile.getPath() + ".journal");
+        this.oldJournalPath = Path.of(saveFile.getPath() + ".journal.old");
+        this.compactThreshold = compactThreshold;
+        this.syncEachRecord = syncEachRecord;
+        replayJournals();
+    }
+
+    public static JournaledTaskManager loadFromFile(File file) {
+        return new JournaledTaskManager(file);
+    }
+
+    @Override
+    protected void persistUpsert(Task task) {
+        if (task != null) {
+            append(TaskUtils.appendCsvRow(new StringBuilder(UPSERT).append(','), task).toString());
+        }
+    }
+
+    @Override
+    protected void persistBatch(List<Task> changed) {
+        StringBuilder records = new StringBuilder();
+        for (Task task : changed) {
+            TaskUtils.appendCsvRow(records.append(UPSERT).append(','), task);
+        }
+        append(records.toString(), changed.size());
+    }
+
+    @Override
+    protected void persistRemove(TaskType type, int id) {
+        append(REMOVE + "," + type + "," + id + "\n");
+    }
+
+    @Override
+    protected void persistClear(TaskType type) {
+        append(CLEAR + "," + type + "\n");
+    }
+
+    @Override
+    void importTask(TaskRow row) {
+        if (replaying && row.type == TaskType.SUBTASK && !epics.containsKey(row.epicId)) {
+            return;
+        }
+        super.importTask(row);
+    }
+
+    /**
+     * Дожидается фоновой записи снимка и закрывает журнал.
+     */
+    @Override
+    public void close() {
+        awaitCompaction();
+        compactor.shutdown();
+        closeJournal();
+    }
+
+    private void append(String record) {
+        append(record, 1);
+    }
+
+    private void append(String records, int count) {
+        if (replaying || count == 0) {
+            return;
+        }
+        try {
+            if (journal == null) {
+                journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(records.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            if (syncEachRecord) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи журнала: " + e);
+        }
+        journalSize += count;
+        if (journalSize >= compactThreshold) {
+            compact();
+        }
+    }
+
+    /**
+     * Откладывает журнал и запускает запись снимка. Если предыдущая запись снимка не удалась, ошибка бросается,
+     * а {@code journalSize} остаётся не меньше порога, так что следующее изменение повторит сжатие.
+     */
+    private void compact() {
+        awaitCompaction();
+        closeJournal();
+        try {
+            if (Files.exists(oldJournalPath)) {
+                appendJournalToOld();
+            } else {
+                Files.move(journalPath, oldJournalPath);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось отложить журнал: " + e);
+        }
+        journalSize = 0;
+        byte[] snapshot = snapshot();
+        compaction = compactor.submit(() -> {
+            write(snapshot);
+            try {
+                Files.deleteIfExists(oldJournalPath);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Не удалось удалить старый журнал: " + e);
+            }
+        });
+    }
+
+    /**
+     * Дописывает текущий журнал в конец старого, записи которого ещё не попали в снимок. Упав между дозаписью
+     * и удалением, программа проиграет часть записей дважды, что допустимо.
+     */
+    private void appendJournalToOld() throws IOException {
+        byte[] records = Files.readAllBytes(journalPath);
+        try (FileChannel old = FileChannel.open(oldJournalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(records);
+            while (buffer.hasRemaining()) {
+                old.write(buffer);
+            }
+            old.force(false);
+        }
+        Files.delete(journalPath);
+    }
+
+    private void awaitCompaction() {
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Прервано ожидание записи снимка");
+        } catch (ExecutionException e) {
+            throw new ManagerSaveException("Ошибка при записи снимка: " + e.getCause());
+        } finally {
+            compaction = null;
+        }
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при закрытии журнала: " + e);
+        } finally {
+            journal = null;
+        }
+    }
+
+    private void replayJournals() {
+        replaying = true;
+        int replayed;
+        try {
+            replayed = replay(oldJournalPath) + replay(journalPath);
+        } finally {
+            replaying = false;
+        }
+        if (replayed > 0) {
+            save();
+            try {
+                Files.deleteIfExists(oldJournalPath);
+                Files.deleteIfExists(journalPath);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Не удалось очистить журнал: " + e);
+            }
+        }
+    }
+
+    private int replay(Path path) {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        byte[] data;
+        try {
+            data = Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new ManagerReadSaveFileException("Не удалось прочитать журнал: " + e);
+        }
+        int count = 0;
+        int start = 0;
+        while (start < data.length) {
+            int end = recordEnd(data, start);
+            if (end < 0) {
+                truncate(path, start);
+                break;
+            }
+            String record = new String(data, start, end - start, StandardCharsets.UTF_8);
+            start = end + 1;
+            if (record.endsWith("\r")) {
+                record = record.substring(0, record.length() - 1);
+            }
+            if (record.isBlank()) {
+                continue;
+            }
+            applyRecord(record);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Позиция перевода строки, которым заканчивается запись, начатая в {@code start}, или -1 для оборванной записи.
+     * Перевод строки внутри кавычек — часть названия или описания, а не конец записи. Кавычки и перевод строки
+     * однобайтовые в UTF-8 и не встречаются внутри многобайтовых символов, поэтому искать их можно по байтам.
+     */
+    private static int recordEnd(byte[] data, int start) {
+        boolean quoted = false;
+        for (int i = start; i < data.length; i++) {
+            if (data[i] == '"') {
+                quoted = !quoted;
+            } else if (data[i] == '\n' && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Отрезает оборванную последнюю запись, чтобы следующая дозапись не склеилась с ней.
+     */
+    private static void truncate(Path path, long size) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось отрезать оборванную запись журнала: " + e);
+        }
+    }
+
+    private void applyRecord(String record) {
+        String[] split = record.split(",", 3);
+        switch (split[0]) {
+            case UPSERT -> importTaskFromString(record.substring(UPSERT.length() + 1));
+            case REMOVE -> {
+                int id = Integer.parseInt(split[2]);
+                switch (TaskType.valueOf(split[1])) {
+                    case TASK -> {
+                        if (tasks.containsKey(id)) {
+                            clearTaskById(id);
+                        }
+                    }
+                    case SUBTASK -> {
+                        if (subTasks.containsKey(id)) {
+                            clearSubTaskById(id);
+                        }
+                    }
+                    case EPIC -> {
+                        if (epics.containsKey(id)) {
+                            clearEpicById(id);
+                        }
+                    }
+                }
+            }
+            case CLEAR -> {
+                switch (TaskType.valueOf(split[1])) {
+                    case TASK -> clearTasks();
+                    case SUBTASK -> clearSubTasks();
+                    case EPIC -> clearEpics();
+                }
+            }
+            default -> throw new ManagerReadSaveFileException("Неизвестная запись журнала: " + record);
+        }
+    }
+}
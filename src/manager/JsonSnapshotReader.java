@@ -0,0 +1,100 @@
+package manager;
+
+import exceptions.JsonParseException;
+import exceptions.ManagerImportTaskException;
+import exceptions.ManagerReadSaveFileException;
+import json.JsonReader;
+import tasks.Status;
+import tasks.TaskType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Читает снимок, записанный {@link JsonSnapshotWriter}, за один проход и без промежуточных объектов задач:
+ * поля сразу попадают в переиспользуемый {@link TaskRow}.
+ */
+class JsonSnapshotReader {
+    private static final int PROBE_BYTES = 64;
+
+    private JsonSnapshotReader() {
+    }
+
+    /**
+     * JSON-снимок — это массив: первый значащий символ файла {@code [}.
+     */
+    static boolean isJson(Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
+            for (byte b : in.readNBytes(PROBE_BYTES)) {
+                if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                    return b == '[';
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw new ManagerReadSaveFileException("Не удалось прочитать файл сохранения: " + e);
+        }
+    }
+
+    static LoadStats read(Path path, Consumer<TaskRow> handler) {
+        long started = System.nanoTime();
+        TaskRow row = new TaskRow();
+        long rows = 0;
+        try (JsonReader reader = new JsonReader(Files.newInputStream(path))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                readRow(reader, row);
+                handler.accept(row);
+                rows++;
+            }
+            reader.endArray();
+            return new LoadStats(rows, Files.size(path), System.nanoTime() - started);
+        } catch (JsonParseException e) {
+            throw new ManagerImportTaskException("Не удалось считать задачу " + (rows + 1) + " из JSON: " + e.getMessage());
+        } catch (IOException e) {
+            throw new ManagerReadSaveFileException("Не удалось прочитать файл сохранения: " + e);
+        }
+    }
+
+    private static void readRow(JsonReader reader, TaskRow row) throws IOException {
+        row.id = -1;
+        row.type = null;
+        row.title = null;
+        row.status = Status.NEW;
+        row.description = null;
+        row.durationMinutes = 0;
+        row.startTime = null;
+        row.endTime = null;
+        row.epicId = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> row.id = reader.nextInt();
+                case "type" -> row.type = parseEnum(TaskType.class, reader.nextString());
+                case "title" -> row.title = reader.nextString();
+                case "status" -> row.status = parseEnum(Status.class, reader.nextString());
+                case "description" -> row.description = reader.nextString();
+                case "duration" -> row.durationMinutes = reader.nextLong();
+                case "startTime" -> row.startTime = reader.nextDateTime();
+                case "endTime" -> row.endTime = reader.nextDateTime();
+                case "epic" -> row.epicId = reader.nextInt();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (row.id < 0 || row.type == null) {
+            throw new JsonParseException("у записи нет id или типа");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, String.valueOf(value));
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("неизвестное значение " + value);
+        }
+    }
+}
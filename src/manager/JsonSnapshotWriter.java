@@ -0,0 +1,46 @@
+package manager;
+
+import exceptions.ManagerSaveException;
+import json.JsonWriter;
+import json.TaskJson;
+import tasks.Epic;
+import tasks.SubTask;
+import tasks.Task;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Снимок задач в JSON: один массив записей {@link TaskJson}, в котором, как и в CSV, задачи идут раньше эпиков,
+ * а эпики — раньше подзадач. Формат читается любым JSON-инструментом, поэтому подходит для выгрузки.
+ */
+class JsonSnapshotWriter {
+    private static final int ROW_BYTES = 192;
+
+    private JsonSnapshotWriter() {
+    }
+
+    static byte[] write(Collection<Task> tasks, Collection<Epic> epics, Collection<SubTask> subTasks) {
+        long rows = (long) tasks.size() + epics.size() + subTasks.size();
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(rows * ROW_BYTES + 2, Integer.MAX_VALUE - 8));
+        try {
+            JsonWriter writer = new JsonWriter(out);
+            writer.beginArray();
+            for (Task task : tasks) {
+                TaskJson.write(writer, task);
+            }
+            for (Epic epic : epics) {
+                TaskJson.write(writer, epic);
+            }
+            for (SubTask subTask : subTasks) {
+                TaskJson.write(writer, subTask);
+            }
+            writer.endArray();
+            writer.flush();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи JSON: " + e);
+        }
+        return out.toByteArray();
+    }
+}
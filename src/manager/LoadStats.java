@@ -0,0 +1,19 @@
+package manager;
+
+public record LoadStats(long rows, long bytes, long nanos) {
+    public static final LoadStats EMPTY = new LoadStats(0, 0, 0);
+
+    public double rowsPerSecond() {
+        return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+    }
+
+    public double megabytesPerSecond() {
+        return nanos == 0 ? 0 : bytes * 1_000_000_000.0 / nanos / (1024 * 1024);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d строк, %d байт за %.1f мс (%.0f строк/с, %.1f МБ/с)",
+                rows, bytes, nanos / 1_000_000.0, rowsPerSecond(), megabytesPerSecond());
+    }
+}
@@ -2,6 +2,9 @@ package manager;
 
 import history.HistoryManager;
 import history.InMemoryHistoryManager;
+import history.PartitionedHistoryService;
+
+import java.io.File;
 
 public class Managers {
 
@@ -9,7 +12,56 @@ public class Managers {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getDefault(int historyCapacity) {
+        return new InMemoryTaskManager(historyCapacity);
+    }
+
+    /**
+     * Менеджер с колоночным хранилищем ({@link ColumnarTaskStore}) и созданием объекта задачи при каждом чтении.
+     * Меньше памяти он занимает только на задачах без времени начала с повторяющимися строками; задачи со временем
+     * и подзадачи хранятся и в колонках, и объектами, поэтому для них экономнее {@link #getDefault()}.
+     */
+    public static InMemoryTaskManager getColumnar() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        return new InMemoryTaskManager(store.tasks(), store.epics(), store.subTasks(), getDefaultHistory());
+    }
+
+    public static ConcurrentTaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    public static FileBackedTaskManager getFileBacked(File saveFile) {
+        return new FileBackedTaskManager(saveFile);
+    }
+
+    public static FileBackedTaskManager getFileBacked(File saveFile, SaveFormat format) {
+        return new FileBackedTaskManager(saveFile, format);
+    }
+
+    public static AsyncFileBackedTaskManager getAsyncFileBacked(File saveFile) {
+        return new AsyncFileBackedTaskManager(saveFile);
+    }
+
+    public static JournaledTaskManager getJournaled(File saveFile) {
+        return new JournaledTaskManager(saveFile);
+    }
+
+    public static MappedTaskManager getMapped(File file) {
+        return new MappedTaskManager(file);
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    /**
+     * Истории пользователей, которые читают задачи из {@code manager}.
+     */
+    public static PartitionedHistoryService getUserHistory(InMemoryTaskManager manager, int capacity) {
+        return new PartitionedHistoryService(capacity, manager::findTask);
+    }
+
+    public static HistoryManager getBoundedHistory(int capacity, long maxBytes) {
+        return new InMemoryHistoryManager(capacity, maxBytes);
+    }
 }
@@ -0,0 +1,269 @@
+package manager;
+
+import exceptions.ManagerImportTaskException;
+import exceptions.ManagerReadSaveFileException;
+import tasks.Status;
+import tasks.TaskType;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Потоковый загрузчик CSV-сохранения.
+ * <p>
+ * Файл отображается в память через {@link FileChannel#map}, поля разбираются прямо по байтам: без
+ * {@code readLine}, {@code split} и {@code DateTimeFormatter}. Строки создаются только для названия и описания;
+ * эти поля могут быть в кавычках CSV.
+ */
+class MappedCsvReader {
+    private static final byte SEPARATOR = ',';
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte QUOTE = '"';
+    private static final String NULL = "null";
+    private static final int DATE_LENGTH = "dd.MM.yyyy HH:mm:ss".length();
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final MappedByteBuffer buffer;
+    private final int limit;
+    private final TaskRow row = new TaskRow();
+    private byte[] scratch = new byte[256];
+    private int position;
+    private int line;
+
+    private MappedCsvReader(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+    }
+
+    /**
+     * Читает файл и передаёт каждую строку в {@code handler}. Экземпляр {@link TaskRow} переиспользуется между
+     * вызовами. Если первая строка не совпадает с {@code header}, файл считается пустым.
+     */
+    static LoadStats read(Path path, String header, Consumer<TaskRow> handler) {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ManagerReadSaveFileException("Файл сохранения слишком велик для загрузки: " + size + " байт");
+            }
+            MappedCsvReader reader = new MappedCsvReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            if (!reader.skipHeader(header.getBytes(StandardCharsets.UTF_8))) {
+                return LoadStats.EMPTY;
+            }
+            long rows = 0;
+            while (reader.nextRow()) {
+                handler.accept(reader.row);
+                rows++;
+            }
+            return new LoadStats(rows, size, System.nanoTime() - started);
+        } catch (IOException e) {
+            throw new ManagerReadSaveFileException("Не удалось прочитать файл сохранения: " + e);
+        }
+    }
+
+    private boolean skipHeader(byte[] header) {
+        if (limit < header.length) {
+            return false;
+        }
+        for (int i = 0; i < header.length; i++) {
+            if (buffer.get(i) != header[i]) {
+                return false;
+            }
+        }
+        position = header.length;
+        if (position < limit && buffer.get(position) != NEW_LINE && buffer.get(position) != CARRIAGE_RETURN) {
+            return false;
+        }
+        skipLineEnd();
+        line = 1;
+        return true;
+    }
+
+    private boolean nextRow() {
+        while (position < limit && (buffer.get(position) == NEW_LINE || buffer.get(position) == CARRIAGE_RETURN)) {
+            position++;
+        }
+        if (position >= limit) {
+            return false;
+        }
+        line++;
+        row.id = parseInt(fieldEnd());
+        row.type = parseEnum(TYPES, fieldEnd());
+        row.title = parseText();
+        row.status = parseEnum(STATUSES, fieldEnd());
+        row.description = parseText();
+        row.durationMinutes = parseLong(fieldEnd());
+        row.startTime = parseDate(fieldEnd());
+        row.endTime = parseDate(fieldEnd());
+        int end = fieldEnd();
+        row.epicId = end == position ? 0 : parseInt(end);
+        skipLineEnd();
+        return true;
+    }
+
+    private int fieldEnd() {
+        int end = position;
+        while (end < limit) {
+            byte b = buffer.get(end);
+            if (b == SEPARATOR || b == NEW_LINE || b == CARRIAGE_RETURN) {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    private void advance(int end) {
+        position = end;
+        if (position < limit && buffer.get(position) == SEPARATOR) {
+            position++;
+        }
+    }
+
+    private void skipLineEnd() {
+        while (position < limit && buffer.get(position) != NEW_LINE) {
+            position++;
+        }
+        if (position < limit) {
+            position++;
+        }
+    }
+
+    private int parseInt(int end) {
+        long value = parseLong(end);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw error("число вне диапазона");
+        }
+        return (int) value;
+    }
+
+    private long parseLong(int end) {
+        int i = position;
+        boolean negative = i < end && buffer.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == end) {
+            throw error("ожидалось число");
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw error("ожидалось число");
+            }
+            value = value * 10 + digit;
+        }
+        advance(end);
+        return negative ? -value : value;
+    }
+
+    private <E extends Enum<E>> E parseEnum(E[] values, int end) {
+        int length = end - position;
+        for (E value : values) {
+            String name = value.name();
+            if (name.length() == length && matches(name)) {
+                advance(end);
+                return value;
+            }
+        }
+        throw error("неизвестное значение");
+    }
+
+    private boolean matches(String ascii) {
+        for (int i = 0; i < ascii.length(); i++) {
+            if (buffer.get(position + i) != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String parseText() {
+        if (position < limit && buffer.get(position) == QUOTE) {
+            return parseQuoted();
+        }
+        int end = fieldEnd();
+        int length = end - position;
+        ensureScratch(length);
+        buffer.get(position, scratch, 0, length);
+        advance(end);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Поле в кавычках: внутри могут быть запятые и переводы строк, а кавычка записывается двумя подряд.
+     */
+    private String parseQuoted() {
+        int i = position + 1;
+        int length = 0;
+        while (true) {
+            if (i >= limit) {
+                throw error("не закрыта кавычка");
+            }
+            byte b = buffer.get(i++);
+            if (b == QUOTE) {
+                if (i >= limit || buffer.get(i) != QUOTE) {
+                    break;
+                }
+                i++;
+            }
+            ensureScratch(length + 1);
+            scratch[length++] = b;
+        }
+        advance(i);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void ensureScratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+    }
+
+    private LocalDateTime parseDate(int end) {
+        int length = end - position;
+        if (length == NULL.length() && matches(NULL)) {
+            advance(end);
+            return null;
+        }
+        if (length != DATE_LENGTH) {
+            throw error("ожидалась дата в формате dd.MM.yyyy HH:mm:ss");
+        }
+        int p = position;
+        LocalDateTime result;
+        try {
+            result = LocalDateTime.of(digits(p + 6, 4), digits(p + 3, 2), digits(p, 2),
+                    digits(p + 11, 2), digits(p + 14, 2), digits(p + 17, 2));
+        } catch (DateTimeException e) {
+            throw error(e.getMessage());
+        }
+        advance(end);
+        return result;
+    }
+
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw error("ожидалась дата в формате dd.MM.yyyy HH:mm:ss");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private ManagerImportTaskException error(String reason) {
+        return new ManagerImportTaskException("Не удалось считать задачу из строки " + line + ": " + reason);
+    }
+}
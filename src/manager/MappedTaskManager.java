@@ -0,0 +1,157 @@
+package manager;
+
+import tasks.Epic;
+import tasks.SubTask;
+import tasks.Task;
+
+import java.io.File;
+import java.util.ArrayList;
+
+/**
+ * Менеджер, данные которого лежат вне кучи, в отображённых в память файлах ({@link MappedTaskStore}).
+ * <p>
+ * При запуске файл не разбирается: слоты просто отображаются в память, а в куче восстанавливаются только эпики
+ * с агрегатами и индекс по времени. Изменения попадают в файлы сразу, но на диск гарантированно сбрасываются
+ * вызовом {@link #force()}: автоматически после каждых {@code forceEvery} изменений или только вручную и при
+ * {@link #close()}, если {@code forceEvery} равен {@link #MANUAL_FORCE}. После сбоя изменения до последнего
+ * сброса сохранены, а более поздние могут потеряться, но каждая задача восстанавливается в одной из своих целых
+ * версий, без порванных записей.
+ */
+public class MappedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    public static final int MANUAL_FORCE = 0;
+
+    private final MappedTaskStore store;
+    private final int forceEvery;
+    private int changes;
+
+    public MappedTaskManager(File file) {
+        this(file, 1);
+    }
+
+    public MappedTaskManager(File file, int forceEvery) {
+        this(MappedTaskStore.open(file.toPath()), forceEvery);
+    }
+
+    private MappedTaskManager(MappedTaskStore store, int forceEvery) {
+        super(store.tasks(), store.epics(), store.subTasks(), Managers.getDefaultHistory());
+        if (forceEvery < 0) {
+            throw new IllegalArgumentException("Частота сброса на диск не может быть отрицательной");
+        }
+        this.store = store;
+        this.forceEvery = forceEvery;
+        restore();
+    }
+
+    @Override
+    public void clearTasks() {
+        super.clearTasks();
+        changed();
+    }
+
+    @Override
+    public void clearSubTasks() {
+        super.clearSubTasks();
+        changed();
+    }
+
+    @Override
+    public void clearEpics() {
+        super.clearEpics();
+        changed();
+    }
+
+    @Override
+    public void clearTaskById(int id) {
+        super.clearTaskById(id);
+        changed();
+    }
+
+    @Override
+    public void clearSubTaskById(int id) {
+        super.clearSubTaskById(id);
+        changed();
+    }
+
+    @Override
+    public void clearEpicById(int id) {
+        super.clearEpicById(id);
+        changed();
+    }
+
+    @Override
+    public Task create(Task task) {
+        Task result = super.create(task);
+        changed();
+        return result;
+    }
+
+    @Override
+    public Task update(Task task) {
+        Task result = super.update(task);
+        changed();
+        return result;
+    }
+
+    @Override
+    public Epic create(Epic epic) {
+        Epic result = super.create(epic);
+        changed();
+        return result;
+    }
+
+    @Override
+    public Epic update(Epic epic) {
+        Epic result = super.update(epic);
+        changed();
+        return result;
+    }
+
+    @Override
+    public SubTask create(SubTask subTask) {
+        SubTask result = super.create(subTask);
+        changed();
+        return result;
+    }
+
+    @Override
+    public SubTask update(SubTask subTask) {
+        SubTask result = super.update(subTask);
+        changed();
+        return result;
+    }
+
+    @Override
+    public ArrayList<Task> applyBatch(Batch batch) {
+        ArrayList<Task> result = super.applyBatch(batch);
+        changed();
+        return result;
+    }
+
+    /**
+     * Сбрасывает все изменения на диск.
+     */
+    public void force() {
+        store.force();
+        changes = 0;
+    }
+
+    @Override
+    public void close() {
+        store.close();
+        changes = 0;
+    }
+
+    private void changed() {
+        if (forceEvery != MANUAL_FORCE && ++changes >= forceEvery) {
+            force();
+        }
+    }
+
+    private void restore() {
+        lastId = store.nextId();
+        for (SubTask subTask : subTasks.values()) {
+            changeEpic(subTask.getCurrentEpic().getId(), epic -> epic.addSubTask(subTask));
+        }
+        store.forEachTimed(prioritisedTasks::add);
+    }
+}
@@ -0,0 +1,529 @@
+package manager;
+
+import exceptions.ManagerReadSaveFileException;
+import exceptions.ManagerSaveException;
+import tasks.Epic;
+import tasks.Status;
+import tasks.SubTask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Хранилище задач в отображённых в память файлах, вне кучи Java.
+ * <p>
+ * Файл слотов после 16-байтового заголовка ({@code KNMS}, версия, размер слота) содержит слоты по
+ * {@value #SLOT_SIZE} байт, слот задачи с id {@code n} лежит по смещению {@code 16 + n * 112}. Слот — две записи
+ * по {@value #RECORD_SIZE} байт, две версии задачи:
+ * <pre>
+ * 0  тип (0 — пусто)     1  статус       4  id эпика
+ * 8  начало, секунды     16 длительность, секунды
+ * 24 смещение названия   32 длина названия (-1 — null)
+ * 36 смещение описания   44 длина описания
+ * 48 номер версии        52 CRC32C байтов 0..51, названия и описания
+ * </pre>
+ * Строки в UTF-8 дописываются в файл {@code .strings} (заголовок {@code KNMH}, версия, конец данных). Если при
+ * перезаписи слота строка не изменилась, используется прежняя запись, поэтому переименования не накапливаются
+ * в файле строк без нужды; освобождённые строки не переиспользуются.
+ * <p>
+ * Задачи и подзадачи читаются из слотов при каждом обращении. Эпики дополнительно держатся в куче, так как
+ * несут агрегаты по подзадачам, а в слот эпика пишутся только название и описание.
+ * <p>
+ * Запись на диск гарантируется только после {@link #force()}, а до него ОС может сбросить любые изменённые
+ * страницы обоих файлов в любом порядке. Поэтому изменение никогда не пишется поверх текущей версии: новая
+ * версия с номером на единицу больше пишется во вторую запись слота, удаление — тоже версия, с пустым типом.
+ * При открытии в каждом слоте выбирается самая новая запись, у которой сходится контрольная сумма, а конец
+ * строк сдвигается за все строки выбранных записей. После сбоя каждая задача оказывается в одной из своих
+ * целых версий: изменения до последнего {@code force()} сохранены, более поздние — возможно, но порванных
+ * записей не бывает. Изменения нескольких слотов сразу, как удаление эпика с подзадачами, могут дойти до диска
+ * частично; единственное несогласованное состояние, которое из этого получается, — подзадача без эпика, и такие
+ * подзадачи при открытии удаляются.
+ */
+class MappedTaskStore implements AutoCloseable {
+    static final int RECORD_SIZE = 56;
+    static final int SLOT_SIZE = 2 * RECORD_SIZE;
+    private static final int SLOTS_MAGIC = 0x4B4E4D53;
+    private static final int STRINGS_MAGIC = 0x4B4E4D48;
+    private static final int VERSION = 2;
+    private static final int HEADER_LENGTH = 16;
+    private static final int MIN_SLOTS = 1024;
+    private static final int MIN_STRINGS = 64 * 1024;
+    private static final byte EMPTY = 0;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int NULL_LENGTH = -1;
+
+    private static final int TYPE = 0;
+    private static final int STATUS = 1;
+    private static final int EPIC_ID = 4;
+    private static final int START = 8;
+    private static final int DURATION = 16;
+    private static final int TITLE = 24;
+    private static final int DESCRIPTION = 36;
+    private static final int SEQUENCE = 48;
+    private static final int CHECKSUM = 52;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final FileChannel slotsChannel;
+    private final FileChannel stringsChannel;
+    private final int[] counts = new int[TYPES.length];
+    private final IdMap<Epic> heapEpics = new TaskStore().view(TaskType.EPIC);
+    private final IdMap<Task> tasks = new SlotView<>(TaskType.TASK);
+    private final IdMap<SubTask> subTasks = new SlotView<>(TaskType.SUBTASK);
+    private final IdMap<Epic> epics = new EpicView();
+    private MappedByteBuffer slots;
+    private MappedByteBuffer strings;
+    private byte[] current;
+    private int capacity;
+    private long stringsEnd;
+    private int maxId = -1;
+
+    private MappedTaskStore(FileChannel slotsChannel, FileChannel stringsChannel) throws IOException {
+        this.slotsChannel = slotsChannel;
+        this.stringsChannel = stringsChannel;
+        boolean created = slotsChannel.size() == 0;
+        capacity = created ? MIN_SLOTS : (int) ((slotsChannel.size() - HEADER_LENGTH) / SLOT_SIZE);
+        slots = slotsChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_LENGTH + (long) capacity * SLOT_SIZE);
+        current = new byte[capacity];
+        long stringsSize = Math.max(stringsChannel.size(), MIN_STRINGS);
+        strings = stringsChannel.map(FileChannel.MapMode.READ_WRITE, 0, stringsSize);
+        if (created) {
+            slots.putInt(0, SLOTS_MAGIC).putInt(4, VERSION).putInt(8, SLOT_SIZE);
+            strings.putInt(0, STRINGS_MAGIC).putInt(4, VERSION);
+            stringsEnd = HEADER_LENGTH;
+            strings.putLong(8, stringsEnd);
+        } else {
+            checkHeaders();
+            stringsEnd = strings.getLong(8);
+            if (stringsEnd < HEADER_LENGTH || stringsEnd > strings.capacity()) {
+                stringsEnd = HEADER_LENGTH;
+            }
+            scan();
+        }
+    }
+
+    /**
+     * Открывает хранилище из {@code path} и {@code path.strings}, создавая их при необходимости.
+     */
+    static MappedTaskStore open(Path path) {
+        Path stringsPath = Path.of(path + ".strings");
+        FileChannel slotsChannel = null;
+        FileChannel stringsChannel = null;
+        try {
+            slotsChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            stringsChannel = FileChannel.open(stringsPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new MappedTaskStore(slotsChannel, stringsChannel);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(slotsChannel);
+            closeQuietly(stringsChannel);
+            if (e instanceof ManagerReadSaveFileException readException) {
+                throw readException;
+            }
+            throw new ManagerReadSaveFileException("Не удалось открыть хранилище " + path + ": " + e);
+        }
+    }
+
+    IdMap<Task> tasks() {
+        return tasks;
+    }
+
+    IdMap<Epic> epics() {
+        return epics;
+    }
+
+    IdMap<SubTask> subTasks() {
+        return subTasks;
+    }
+
+    /**
+     * Следующий свободный id: на единицу больше наибольшего id, когда-либо записанного в хранилище.
+     */
+    int nextId() {
+        return maxId + 1;
+    }
+
+    /**
+     * Передаёт задачи и подзадачи со временем начала; задачи без времени при этом не читаются.
+     */
+    void forEachTimed(Consumer<Task> action) {
+        for (int id = 0; id <= maxId; id++) {
+            byte type = slots.get(record(id) + TYPE);
+            if (type != EMPTY && type != code(TaskType.EPIC) && slots.getLong(record(id) + START) != NO_TIME) {
+                action.accept(read(id));
+            }
+        }
+    }
+
+    /**
+     * Сбрасывает изменения обоих файлов на диск. Порядок не важен: запись, строки которой не дошли до диска,
+     * при открытии не пройдёт проверку контрольной суммы, и будет выбрана прежняя версия.
+     */
+    void force() {
+        strings.force();
+        slots.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+        closeQuietly(slotsChannel);
+        closeQuietly(stringsChannel);
+    }
+
+    private void checkHeaders() {
+        if (slots.getInt(0) != SLOTS_MAGIC || slots.getInt(4) != VERSION || slots.getInt(8) != SLOT_SIZE
+                || strings.getInt(0) != STRINGS_MAGIC || strings.getInt(4) != VERSION) {
+            throw new ManagerReadSaveFileException("Файл не является хранилищем задач этой версии");
+        }
+    }
+
+    /**
+     * Выбирает в каждом слоте текущую запись и восстанавливает счётчики, конец строк и эпики в куче.
+     * Задачи и подзадачи не разбираются, только проверяются их контрольные суммы. Слот без целых записей
+     * обнуляется: задача в нём ни разу не дошла до диска целиком.
+     */
+    private void scan() {
+        for (int id = 0; id < capacity; id++) {
+            int first = slot(id);
+            int second = first + RECORD_SIZE;
+            boolean firstValid = intact(first);
+            boolean secondValid = intact(second);
+            if (!firstValid && !secondValid) {
+                slots.put(first, new byte[SLOT_SIZE]);
+                continue;
+            }
+            boolean useSecond = secondValid
+                    && (!firstValid || slots.getInt(second + SEQUENCE) - slots.getInt(first + SEQUENCE) > 0);
+            current[id] = (byte) (useSecond ? 1 : 0);
+            int record = record(id);
+            byte type = slots.get(record + TYPE);
+            if (type == EMPTY) {
+                continue;
+            }
+            counts[type - 1]++;
+            maxId = id;
+            stringsEnd = Math.max(stringsEnd, Math.max(stringEnd(record + TITLE), stringEnd(record + DESCRIPTION)));
+            if (type == code(TaskType.EPIC)) {
+                Epic epic = new Epic(readString(record + TITLE), readString(record + DESCRIPTION), Status.NEW, id,
+                        new ArrayList<>(), Duration.ZERO, null, null);
+                heapEpics.put(id, epic.snapshot());
+            }
+        }
+        dropOrphanSubTasks();
+        strings.putLong(8, stringsEnd);
+    }
+
+    /**
+     * Удаляет подзадачи, эпика которых нет. Удаление эпика меняет несколько слотов, и после сбоя на диске может
+     * оказаться новая версия слота эпика рядом со старыми версиями слотов его подзадач.
+     */
+    private void dropOrphanSubTasks() {
+        for (int id = 0; id <= maxId; id++) {
+            int record = record(id);
+            if (slots.get(record + TYPE) == code(TaskType.SUBTASK)
+                    && heapEpics.get(slots.getInt(record + EPIC_ID)) == null) {
+                erase(id);
+            }
+        }
+    }
+
+    /**
+     * Цела ли запись: тип и ссылки на строки в допустимых пределах и контрольная сумма сходится.
+     */
+    private boolean intact(int record) {
+        byte type = slots.get(record + TYPE);
+        if (type < EMPTY || type > TYPES.length || !stringInBounds(record + TITLE)
+                || !stringInBounds(record + DESCRIPTION)) {
+            return false;
+        }
+        return slots.getInt(record + CHECKSUM) == checksum(record);
+    }
+
+    private boolean stringInBounds(int field) {
+        int length = slots.getInt(field + 8);
+        if (length == NULL_LENGTH) {
+            return true;
+        }
+        long offset = slots.getLong(field);
+        return length >= 0 && offset >= HEADER_LENGTH && offset + length <= strings.capacity();
+    }
+
+    private long stringEnd(int field) {
+        int length = slots.getInt(field + 8);
+        return length == NULL_LENGTH ? HEADER_LENGTH : slots.getLong(field) + length;
+    }
+
+    private int checksum(int record) {
+        CRC32C crc = new CRC32C();
+        crc.update(slots.slice(record, CHECKSUM));
+        for (int field : new int[]{record + TITLE, record + DESCRIPTION}) {
+            int length = slots.getInt(field + 8);
+            if (length > 0) {
+                crc.update(strings.slice((int) slots.getLong(field), length));
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    private static byte code(TaskType type) {
+        return (byte) (type.ordinal() + 1);
+    }
+
+    private static int slot(int id) {
+        return HEADER_LENGTH + id * SLOT_SIZE;
+    }
+
+    /**
+     * Смещение текущей записи слота.
+     */
+    private int record(int id) {
+        return slot(id) + current[id] * RECORD_SIZE;
+    }
+
+    private boolean holds(int id, TaskType type) {
+        return id >= 0 && id < capacity && slots.get(record(id) + TYPE) == code(type);
+    }
+
+    private boolean occupied(int id) {
+        return id >= 0 && id < capacity && slots.get(record(id) + TYPE) != EMPTY;
+    }
+
+    private Task read(int id) {
+        int record = record(id);
+        String title = readString(record + TITLE);
+        String description = readString(record + DESCRIPTION);
+        Status status = STATUSES[slots.get(record + STATUS)];
+        Duration duration = Duration.ofSeconds(slots.getLong(record + DURATION));
+        long start = slots.getLong(record + START);
+        LocalDateTime startTime = start == NO_TIME ? null : LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC);
+        if (slots.get(record + TYPE) == code(TaskType.SUBTASK)) {
+            Epic epic = heapEpics.get(slots.getInt(record + EPIC_ID));
+            return new SubTask(title, description, status, id, duration, startTime, epic).snapshot();
+        }
+        return new Task(title, description, status, id, duration, startTime).snapshot();
+    }
+
+    private void write(int id, TaskType type, Task task) {
+        ensureCapacity(id);
+        byte previous = slots.get(record(id) + TYPE);
+        commit(id, type, task);
+        if (previous != EMPTY) {
+            counts[previous - 1]--;
+        }
+        counts[type.ordinal()]++;
+        maxId = Math.max(maxId, id);
+    }
+
+    private void erase(int id) {
+        counts[slots.get(record(id) + TYPE) - 1]--;
+        commit(id, null, null);
+    }
+
+    /**
+     * Пишет новую версию слота во вторую, не текущую запись и делает её текущей. {@code type == null} — удаление.
+     */
+    private void commit(int id, TaskType type, Task task) {
+        int from = record(id);
+        int to = slot(id) + (1 - current[id]) * RECORD_SIZE;
+        boolean occupied = slots.get(from + TYPE) != EMPTY;
+        slots.put(to, new byte[RECORD_SIZE]);
+        writeString(from + TITLE, to + TITLE, task == null ? null : task.getTitle(), occupied);
+        writeString(from + DESCRIPTION, to + DESCRIPTION, task == null ? null : task.getDescription(), occupied);
+        if (task != null) {
+            slots.put(to + STATUS, (byte) task.getStatus().ordinal());
+            slots.putInt(to + EPIC_ID, task instanceof SubTask subTask ? subTask.getCurrentEpic().getId() : 0);
+            slots.putLong(to + START, task.getStartTime() == null ? NO_TIME
+                    : task.getStartTime().toEpochSecond(ZoneOffset.UTC));
+            slots.putLong(to + DURATION, task.getDuration().getSeconds());
+            slots.put(to + TYPE, code(type));
+        }
+        slots.putInt(to + SEQUENCE, slots.getInt(from + SEQUENCE) + 1);
+        slots.putInt(to + CHECKSUM, checksum(to));
+        current[id] = (byte) (1 - current[id]);
+    }
+
+    private String readString(int field) {
+        int length = slots.getInt(field + 8);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        strings.get((int) slots.getLong(field), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Записывает ссылку на строку в поле {@code to}; если строка совпадает со строкой поля {@code from} прежней
+     * версии, ссылка копируется без дописывания.
+     */
+    private void writeString(int from, int to, String value, boolean occupied) {
+        if (value == null) {
+            slots.putInt(to + 8, NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long offset = occupied && sameBytes(from, bytes) ? slots.getLong(from) : append(bytes);
+        slots.putLong(to, offset);
+        slots.putInt(to + 8, bytes.length);
+    }
+
+    private boolean sameBytes(int field, byte[] bytes) {
+        if (slots.getInt(field + 8) != bytes.length) {
+            return false;
+        }
+        int offset = (int) slots.getLong(field);
+        for (int i = 0; i < bytes.length; i++) {
+            if (strings.get(offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long append(byte[] bytes) {
+        long offset = stringsEnd;
+        long end = offset + bytes.length;
+        if (end > strings.capacity()) {
+            strings = remap(stringsChannel, Math.max(end, (long) strings.capacity() * 2));
+        }
+        strings.put((int) offset, bytes);
+        stringsEnd = end;
+        strings.putLong(8, stringsEnd);
+        return offset;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Отрицательный id задачи: " + id);
+        }
+        if (id < capacity) {
+            return;
+        }
+        int newCapacity = Math.max(id + 1, capacity * 2);
+        slots = remap(slotsChannel, HEADER_LENGTH + (long) newCapacity * SLOT_SIZE);
+        current = Arrays.copyOf(current, newCapacity);
+        capacity = newCapacity;
+    }
+
+    private static MappedByteBuffer remap(FileChannel channel, long size) {
+        if (size > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Хранилище не может превышать 2 ГБ");
+        }
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось расширить хранилище: " + e);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // файл уже сброшен на диск, ошибка закрытия ничего не теряет
+        }
+    }
+
+    private class SlotView<T extends Task> extends ArrayIdMap<T> {
+        SlotView(TaskType type) {
+            super(type);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int id) {
+            return holds(id, type) ? (T) read(id) : null;
+        }
+
+        @Override
+        public boolean containsKey(int id) {
+            return holds(id, type);
+        }
+
+        @Override
+        protected int bound() {
+            return maxId + 1;
+        }
+
+        @Override
+        protected boolean occupied(int id) {
+            return MappedTaskStore.this.occupied(id);
+        }
+
+        @Override
+        protected void store(int id, T value) {
+            write(id, type, value);
+        }
+
+        @Override
+        protected void erase(int id) {
+            MappedTaskStore.this.erase(id);
+        }
+
+        @Override
+        public int size() {
+            return counts[type.ordinal()];
+        }
+    }
+
+    /**
+     * Эпики читаются из кучи, а название и описание записываются и в слот.
+     */
+    private class EpicView extends ArrayIdMap<Epic> {
+        EpicView() {
+            super(TaskType.EPIC);
+        }
+
+        @Override
+        public Epic get(int id) {
+            return heapEpics.get(id);
+        }
+
+        @Override
+        protected int bound() {
+            return maxId + 1;
+        }
+
+        @Override
+        protected boolean occupied(int id) {
+            return MappedTaskStore.this.occupied(id);
+        }
+
+        @Override
+        protected void store(int id, Epic value) {
+            write(id, type, value);
+            heapEpics.put(id, value);
+        }
+
+        @Override
+        protected void erase(int id) {
+            MappedTaskStore.this.erase(id);
+            heapEpics.remove(id);
+        }
+
+        @Override
+        public int size() {
+            return counts[type.ordinal()];
+        }
+    }
+}
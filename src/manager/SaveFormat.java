@@ -0,0 +1,7 @@
+package manager;
+
+public enum SaveFormat {
+    CSV,
+    BINARY,
+    JSON
+}
@@ -0,0 +1,29 @@
+package manager;
+
+import java.io.File;
+
+/**
+ * Конвертирует файл сохранения между форматами.
+ * <p>
+ * Запуск: {@code java manager.SnapshotConverter <исходный файл> <новый файл> <CSV|BINARY|JSON>}. Формат исходного
+ * файла определяется автоматически.
+ */
+public class SnapshotConverter {
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.out.println("Использование: SnapshotConverter <исходный файл> <новый файл> <CSV|BINARY|JSON>");
+            return;
+        }
+        File source = new File(args[0]);
+        File target = new File(args[1]);
+        SaveFormat format = SaveFormat.valueOf(args[2].toUpperCase());
+
+        convert(source, target, format);
+        System.out.printf("%s (%d байт) -> %s (%d байт)%n", source, source.length(), target, target.length());
+    }
+
+    public static void convert(File source, File target, SaveFormat format) {
+        FileBackedTaskManager.loadFromFile(source).saveAs(target, format);
+    }
+}
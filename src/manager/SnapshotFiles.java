@@ -0,0 +1,174 @@
+package manager;
+
+import exceptions.ManagerReadSaveFileException;
+import exceptions.ManagerSaveException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Атомарная запись снимков и выбор снимка для восстановления.
+ * <p>
+ * Снимок пишется одним вызовом во временный файл {@code .tmp}, сбрасывается на диск и только после этого
+ * переименовывается в файл сохранения; прежний файл сохранения остаётся резервной копией {@code .bak}.
+ * Рядом с каждым снимком лежит {@code .sum} с контрольной суммой CRC32C и длиной, так что сам CSV не меняет
+ * формат; у резервной копии это {@code .bak.sum}. Сумма переносится раньше снимка: упавшая между двумя
+ * переименованиями программа оставит резервную копию с чужой суммой, и та будет отвергнута, а не принята за целую. Упавшая посреди записи программа оставляет либо прежний, либо новый полный снимок, но не обрезанный.
+ */
+class SnapshotFiles {
+    static final String TEMP_SUFFIX = ".tmp";
+    static final String BACKUP_SUFFIX = ".bak";
+    static final String CHECKSUM_SUFFIX = ".sum";
+
+    private SnapshotFiles() {
+    }
+
+    static void writeAtomically(Path target, byte[] snapshot) {
+        Path checksum = sibling(target, CHECKSUM_SUFFIX);
+        Path temp = sibling(target, TEMP_SUFFIX);
+        Path tempChecksum = sibling(checksum, TEMP_SUFFIX);
+        try {
+            writeAndForce(temp, snapshot);
+            writeAndForce(tempChecksum, checksumLine(snapshot).getBytes(StandardCharsets.US_ASCII));
+            if (Files.exists(target)) {
+                Path backup = sibling(target, BACKUP_SUFFIX);
+                Path backupChecksum = sibling(backup, CHECKSUM_SUFFIX);
+                if (Files.exists(checksum)) {
+                    move(checksum, backupChecksum);
+                } else {
+                    Files.deleteIfExists(backupChecksum);
+                }
+                move(target, backup);
+            }
+            move(temp, target);
+            move(tempChecksum, checksum);
+            forceDirectory(target.toAbsolutePath().getParent());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сохранении: " + e);
+        }
+    }
+
+    /**
+     * Файлы, из которых можно восстановиться, в порядке предпочтения: файл сохранения и его резервная копия.
+     */
+    static List<Path> candidates(Path target) {
+        List<Path> result = new ArrayList<>(2);
+        for (Path path : List.of(target, sibling(target, BACKUP_SUFFIX))) {
+            if (Files.exists(path)) {
+                result.add(path);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Проверяет снимок по контрольной сумме. Файлы без {@code .sum}, записанные до её появления или вручную,
+     * считаются целыми.
+     */
+    static void checkIntact(Path file) {
+        Path checksum = sibling(file, CHECKSUM_SUFFIX);
+        if (!Files.exists(checksum)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            String expected = Files.readString(checksum, StandardCharsets.US_ASCII).trim();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ManagerReadSaveFileException("Файл сохранения слишком велик для загрузки: " + size + " байт");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (!expected.equals(checksumLine(buffer, size).trim())) {
+                throw new ManagerReadSaveFileException("Файл " + file + " повреждён: контрольная сумма не совпадает");
+            }
+        } catch (IOException e) {
+            throw new ManagerReadSaveFileException("Не удалось проверить файл сохранения: " + e);
+        }
+    }
+
+    /**
+     * Контрольная сумма снимка в том виде, в каком она лежит в {@code .sum}.
+     */
+    static String checksumOf(byte[] snapshot) {
+        return checksumLine(snapshot).trim();
+    }
+
+    /**
+     * Контрольная сумма из {@code .sum} рядом с файлом или {@code null}, если её нет.
+     */
+    static String readChecksum(Path file) {
+        Path checksum = sibling(file, CHECKSUM_SUFFIX);
+        try {
+            return Files.exists(checksum) ? Files.readString(checksum, StandardCharsets.US_ASCII).trim() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static Path sibling(Path path, String suffix) {
+        return path.resolveSibling(path.getFileName() + suffix);
+    }
+
+    static void deleteTemporary(Path target) {
+        try {
+            Files.deleteIfExists(sibling(target, TEMP_SUFFIX));
+            Files.deleteIfExists(sibling(sibling(target, CHECKSUM_SUFFIX), TEMP_SUFFIX));
+        } catch (IOException ignored) {
+            // недописанный временный файл никогда не читается, удалить его — лишь уборка
+        }
+    }
+
+    private static String checksumLine(byte[] snapshot) {
+        return checksumLine(ByteBuffer.wrap(snapshot), snapshot.length);
+    }
+
+    private static String checksumLine(ByteBuffer buffer, long length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer);
+        return String.format("%08x,%d%n", crc.getValue(), length);
+    }
+
+    private static void writeAndForce(Path path, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Сбрасывает каталог, чтобы переименования пережили сбой питания. Не все системы позволяют открыть каталог,
+     * в этом случае остаётся надеяться на файловую систему.
+     */
+    private static void forceDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // например, Windows не открывает каталоги как файлы
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package manager;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Пул строк со счётчиком ссылок: одинаковые названия и описания хранятся один раз, а колонки держат только
+ * номер строки в пуле. Строка освобождается, когда на неё не остаётся ссылок.
+ */
+class StringPool {
+    static final int NULL = -1;
+
+    private final HashMap<String, Integer> indexes = new HashMap<>();
+    private String[] values = new String[16];
+    private int[] refs = new int[16];
+    private int[] free = new int[16];
+    private int freeCount;
+    private int used;
+
+    int acquire(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer existing = indexes.get(value);
+        if (existing != null) {
+            refs[existing]++;
+            return existing;
+        }
+        int index = freeCount > 0 ? free[--freeCount] : used++;
+        if (index >= values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+            refs = Arrays.copyOf(refs, refs.length * 2);
+        }
+        values[index] = value;
+        refs[index] = 1;
+        indexes.put(value, index);
+        return index;
+    }
+
+    String get(int index) {
+        return index == NULL ? null : values[index];
+    }
+
+    void release(int index) {
+        if (index == NULL || --refs[index] > 0) {
+            return;
+        }
+        indexes.remove(values[index]);
+        values[index] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, free.length * 2);
+        }
+        free[freeCount++] = index;
+    }
+
+    int size() {
+        return indexes.size();
+    }
+}
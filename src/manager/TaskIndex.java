@@ -0,0 +1,213 @@
+package manager;
+
+import tasks.Status;
+import tasks.Task;
+import tasks.TaskType;
+import tasks.TaskUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Вторичные индексы менеджера: id задач каждого типа по статусу и по названию без учёта регистра.
+ * <p>
+ * Индекс строится из хранилища при первом поиске ({@link #build}), до этого обновления ничего не стоят.
+ * Дальше менеджер сообщает о каждом изменении через {@link #update}, передавая прежний и новый снимок задачи.
+ * Поиск по префиксу названия идёт по {@link TreeMap}: спуск к первому подходящему ключу за O(log n) и обход
+ * подряд идущих ключей, то есть за время, пропорциональное ответу. Методы синхронизированы, поэтому
+ * {@link ConcurrentTaskManager} может обновлять индекс под разными блокировками эпиков.
+ */
+class TaskIndex {
+    private final EnumMap<TaskType, EnumMap<Status, IntSet>> byStatus = new EnumMap<>(TaskType.class);
+    private final EnumMap<TaskType, TreeMap<String, IntSet>> byTitle = new EnumMap<>(TaskType.class);
+    private volatile boolean enabled;
+
+    TaskIndex() {
+        for (TaskType type : TaskType.values()) {
+            EnumMap<Status, IntSet> statuses = new EnumMap<>(Status.class);
+            for (Status status : Status.values()) {
+                statuses.put(status, new IntSet());
+            }
+            byStatus.put(type, statuses);
+            byTitle.put(type, new TreeMap<>());
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Включает индекс и заполняет его задачами хранилища. Флаг ставится до обхода, поэтому изменение,
+     * пропущенное обходом, дойдёт до индекса через {@link #update}.
+     */
+    synchronized void build(Collection<? extends Task> tasks, Collection<? extends Task> epics,
+                            Collection<? extends Task> subTasks) {
+        if (enabled) {
+            return;
+        }
+        enabled = true;
+        tasks.forEach(this::add);
+        epics.forEach(this::add);
+        subTasks.forEach(this::add);
+    }
+
+    /**
+     * Учитывает замену снимка задачи: {@code previous == null} — задача создана, {@code current == null} — удалена.
+     * Пока индекс не построен, вызов сводится к чтению флага без блокировки.
+     */
+    void update(Task previous, Task current) {
+        if (enabled) {
+            apply(previous, current);
+        }
+    }
+
+    private synchronized void apply(Task previous, Task current) {
+        if (!enabled) {
+            return;
+        }
+        if (previous != null && current != null) {
+            TaskType type = TaskUtils.typeOf(current);
+            if (previous.getStatus() != current.getStatus()) {
+                byStatus.get(type).get(previous.getStatus()).remove(previous.getId());
+                byStatus.get(type).get(current.getStatus()).add(current.getId());
+            }
+            String previousKey = normalize(previous.getTitle());
+            String currentKey = normalize(current.getTitle());
+            if (!previousKey.equals(currentKey)) {
+                removeTitle(type, previousKey, previous.getId());
+                addTitle(type, currentKey, current.getId());
+            }
+            return;
+        }
+        if (previous != null) {
+            remove(previous);
+        }
+        if (current != null) {
+            add(current);
+        }
+    }
+
+    synchronized void removeAll(TaskType type) {
+        byStatus.get(type).values().forEach(IntSet::clear);
+        byTitle.get(type).clear();
+    }
+
+    /**
+     * Очищает и выключает индекс: он снова построится при следующем поиске.
+     */
+    synchronized void clear() {
+        enabled = false;
+        for (TaskType type : TaskType.values()) {
+            removeAll(type);
+        }
+    }
+
+    /**
+     * Id задач типа {@code type} со статусом {@code status} по возрастанию.
+     */
+    synchronized int[] idsByStatus(TaskType type, Status status) {
+        return byStatus.get(type).get(status).toSortedArray();
+    }
+
+    /**
+     * Не более {@code limit} id задач всех типов, название которых начинается с {@code prefix} без учёта регистра,
+     * по алфавиту названий, а при равных названиях — по возрастанию id.
+     */
+    synchronized int[] idsByTitlePrefix(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<Iterator<Map.Entry<String, IntSet>>> cursors = new ArrayList<>(TaskType.values().length);
+        List<Map.Entry<String, IntSet>> heads = new ArrayList<>(TaskType.values().length);
+        for (TreeMap<String, IntSet> titles : byTitle.values()) {
+            Iterator<Map.Entry<String, IntSet>> cursor = titles.tailMap(key, true).entrySet().iterator();
+            cursors.add(cursor);
+            heads.add(matching(cursor, key));
+        }
+        int[] result = new int[Math.min(limit, 16)];
+        int count = 0;
+        while (count < limit) {
+            int smallest = -1;
+            for (int i = 0; i < heads.size(); i++) {
+                Map.Entry<String, IntSet> head = heads.get(i);
+                if (head != null && (smallest < 0 || head.getKey().compareTo(heads.get(smallest).getKey()) < 0)) {
+                    smallest = i;
+                }
+            }
+            if (smallest < 0) {
+                break;
+            }
+            String title = heads.get(smallest).getKey();
+            int[] ids = equalTitleIds(heads, cursors, title, key);
+            for (int i = 0; i < ids.length && count < limit; i++) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, Math.min(limit, result.length * 2));
+                }
+                result[count++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Собирает id всех типов с названием {@code title} и сдвигает курсоры, стоящие на нём.
+     */
+    private static int[] equalTitleIds(List<Map.Entry<String, IntSet>> heads,
+                                       List<Iterator<Map.Entry<String, IntSet>>> cursors, String title, String key) {
+        int[] ids = new int[0];
+        for (int i = 0; i < heads.size(); i++) {
+            Map.Entry<String, IntSet> head = heads.get(i);
+            if (head != null && head.getKey().equals(title)) {
+                int[] typeIds = head.getValue().toSortedArray();
+                int[] merged = Arrays.copyOf(ids, ids.length + typeIds.length);
+                System.arraycopy(typeIds, 0, merged, ids.length, typeIds.length);
+                ids = merged;
+                heads.set(i, matching(cursors.get(i), key));
+            }
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static Map.Entry<String, IntSet> matching(Iterator<Map.Entry<String, IntSet>> cursor, String prefix) {
+        if (!cursor.hasNext()) {
+            return null;
+        }
+        Map.Entry<String, IntSet> entry = cursor.next();
+        return entry.getKey().startsWith(prefix) ? entry : null;
+    }
+
+    private void add(Task task) {
+        TaskType type = TaskUtils.typeOf(task);
+        byStatus.get(type).get(task.getStatus()).add(task.getId());
+        addTitle(type, normalize(task.getTitle()), task.getId());
+    }
+
+    private void remove(Task task) {
+        TaskType type = TaskUtils.typeOf(task);
+        byStatus.get(type).get(task.getStatus()).remove(task.getId());
+        removeTitle(type, normalize(task.getTitle()), task.getId());
+    }
+
+    private void addTitle(TaskType type, String key, int id) {
+        byTitle.get(type).computeIfAbsent(key, k -> new IntSet()).add(id);
+    }
+
+    private void removeTitle(TaskType type, String key, int id) {
+        TreeMap<String, IntSet> titles = byTitle.get(type);
+        IntSet ids = titles.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            titles.remove(key);
+        }
+    }
+
+    private static String normalize(String title) {
+        return title == null ? "" : title.toLowerCase(Locale.ROOT);
+    }
+}
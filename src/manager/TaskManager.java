@@ -1,10 +1,15 @@
 package manager;
 
 import tasks.Epic;
+import tasks.Status;
 import tasks.SubTask;
 import tasks.Task;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface TaskManager {
     ArrayList<Task> getTasks();
@@ -15,26 +20,134 @@ public interface TaskManager {
 
     ArrayList<Task> getPrioritizedTasks();
 
+    /**
+     * Запланированные задачи, пересекающиеся с окном [from, to), например с неделей календаря, в порядке времени
+     * начала. Стоит O(log n + k) для k задач в окне.
+     */
+    ArrayList<Task> getCrossingTasks(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Занятые запланированными задачами промежутки внутри [from, to). Задачи, идущие вплотную, сливаются в один
+     * промежуток, края обрезаются по окну.
+     */
+    ArrayList<TimeSlot> busyIntervals(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Самое раннее время не раньше {@code after}, с которого задача длительностью {@code duration} не пересечётся
+     * ни с одной запланированной.
+     */
+    LocalDateTime nextFreeSlot(Duration duration, LocalDateTime after);
+
+    /**
+     * Ленивые потоки поверх хранилища менеджера, без копирования. Элементы — неизменяемые снимки.
+     * Для {@link InMemoryTaskManager} поток нельзя дочитывать после изменения менеджера
+     * ({@link java.util.ConcurrentModificationException}); {@link ConcurrentTaskManager} отдаёт слабо согласованные
+     * потоки: они не падают при параллельных изменениях и могут как увидеть, так и не увидеть их.
+     */
+    Stream<Task> streamTasks();
+
+    Stream<Epic> streamEpics();
+
+    Stream<SubTask> streamSubTasks();
+
+    Stream<Task> streamPrioritizedTasks();
+
+    /**
+     * Страница задач по возрастанию id, начиная со следующего после {@code afterId}.
+     * Для первой страницы передаётся -1, для следующей — id последней задачи предыдущей страницы.
+     */
+    ArrayList<Task> getTasksPage(int afterId, int limit);
+
+    ArrayList<Epic> getEpicsPage(int afterId, int limit);
+
+    ArrayList<SubTask> getSubTasksPage(int afterId, int limit);
+
+    /**
+     * Не более {@code limit} задач, начинающихся не раньше {@code from}, в порядке приоритета.
+     * Это первая страница; следующие запрашиваются через {@link #getPrioritizedTasksAfter}.
+     */
+    ArrayList<Task> getPrioritizedTasks(LocalDateTime from, int limit);
+
+    /**
+     * Не более {@code limit} задач, идущих в порядке приоритета строго после позиции ({@code start}, {@code end},
+     * {@code id}) — времени начала, времени окончания и id последней задачи предыдущей страницы. В отличие от одного
+     * времени, такой курсор всегда продвигается, даже если на границе страницы несколько задач начинаются в один
+     * момент. Курсор — сама позиция, а не задача, поэтому он остаётся верным, даже если задачу с тех пор удалили,
+     * сняли с расписания или перенесли.
+     */
+    ArrayList<Task> getPrioritizedTasksAfter(LocalDateTime start, LocalDateTime end, int id, int limit);
+
+    /**
+     * Задачи с заданным статусом по возрастанию id. Поиск идёт по вторичному индексу за время, пропорциональное
+     * ответу; сам индекс строится при первом поиске.
+     */
+    ArrayList<Task> findTasksByStatus(Status status);
+
+    ArrayList<Epic> findEpicsByStatus(Status status);
+
+    ArrayList<SubTask> findSubTasksByStatus(Status status);
+
+    /**
+     * Не более {@code limit} задач любого типа, название которых начинается с {@code prefix} без учёта регистра,
+     * по алфавиту названий.
+     */
+    ArrayList<Task> findByTitlePrefix(String prefix, int limit);
+
+    /**
+     * Не более {@code limit} задач любого типа по возрастанию id, в названии или описании которых есть все слова
+     * запроса; группы слов, разделённые {@code OR}, объединяются. Регистр и {@code ё}/{@code е} не различаются.
+     */
+    ArrayList<Task> search(String query, int limit);
+
     void clearTasks();
 
     void clearSubTasks();
 
     void clearEpics();
 
-    Task getTaskById(Integer id);
+    Task getTaskById(int id);
+
+    Epic getEpicById(int id);
+
+    SubTask getSubTaskById(int id);
+
+    void clearTaskById(int id);
+
+    void clearSubTaskById(int id);
+
+    void clearEpicById(int id);
 
-    Epic getEpicById(Integer id);
+    default Task getTaskById(Integer id) {
+        return id == null ? null : getTaskById(id.intValue());
+    }
 
-    SubTask getSubTaskById(Integer id);
+    default Epic getEpicById(Integer id) {
+        return id == null ? null : getEpicById(id.intValue());
+    }
 
-    void clearTaskById(Integer id);
+    default SubTask getSubTaskById(Integer id) {
+        return id == null ? null : getSubTaskById(id.intValue());
+    }
 
-    void clearSubTaskById(Integer id);
+    default void clearTaskById(Integer id) {
+        clearTaskById(id.intValue());
+    }
 
-    void clearEpicById(Integer id);
+    default void clearSubTaskById(Integer id) {
+        clearSubTaskById(id.intValue());
+    }
+
+    default void clearEpicById(Integer id) {
+        clearEpicById(id.intValue());
+    }
 
     ArrayList<SubTask> getSubTasksByEpic(Epic epic);
 
+    /**
+     * Создаёт задачу с новым id. Id выдаются подряд и не переиспользуются после удаления. Хранилища на массивах
+     * ({@link Managers#getDefault()} и остальные, кроме {@link ConcurrentTaskManager}) принимают id не больше
+     * 2^24 - 1; после этого создание любых задач бросает {@link IllegalStateException}, ничего не меняя.
+     */
     Task create(Task task);
 
     Task update(Task task);
@@ -47,5 +160,21 @@ public interface TaskManager {
 
     SubTask update(SubTask subTask);
 
+    ArrayList<Task> applyBatch(Batch batch);
+
+    default ArrayList<Task> createAll(List<? extends Task> tasks) {
+        Batch batch = new Batch();
+        tasks.forEach(batch::create);
+        return applyBatch(batch);
+    }
+
+    default ArrayList<Task> updateAll(List<? extends Task> tasks) {
+        Batch batch = new Batch();
+        tasks.forEach(batch::update);
+        return applyBatch(batch);
+    }
+
     ArrayList<Task> getHistory();
+
+    ArrayList<Task> getHistory(int offset, int limit);
 }
@@ -0,0 +1,21 @@
+package manager;
+
+import tasks.Status;
+import tasks.TaskType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Одна строка файла сохранения. Загрузчики переиспользуют экземпляр, чтобы не создавать промежуточных объектов.
+ */
+class TaskRow {
+    int id;
+    TaskType type;
+    String title;
+    Status status;
+    String description;
+    long durationMinutes;
+    LocalDateTime startTime;
+    LocalDateTime endTime;
+    int epicId;
+}
@@ -0,0 +1,85 @@
+package manager;
+
+import tasks.Task;
+import tasks.TaskType;
+import tasks.TaskUtils;
+
+import java.util.Arrays;
+
+/**
+ * Общее хранилище задач всех типов в массиве, индексированном id.
+ * <p>
+ * Id выдаются подряд, поэтому массив почти не содержит пропусков: на задачу приходится одна ссылка в массиве
+ * вместо узла {@code HashMap} и упакованного {@code Integer}, а поиск по id — это проверка границ и чтение ячейки.
+ * Задачи каждого типа доступны через отдельное представление {@link IdMap}; обход представления проходит весь
+ * массив по возрастанию id.
+ */
+class TaskStore {
+    private static final int MIN_CAPACITY = 16;
+
+    private Task[] items = new Task[MIN_CAPACITY];
+    private final int[] counts = new int[TaskType.values().length];
+
+    <T extends Task> IdMap<T> view(TaskType type) {
+        return new View<>(type);
+    }
+
+    private Task at(int id) {
+        return id >= 0 && id < items.length ? items[id] : null;
+    }
+
+    private void store(int id, Task task) {
+        if (id >= items.length) {
+            items = Arrays.copyOf(items, Math.min(Math.max(id + 1, items.length * 2), ArrayIdMap.MAX_ID + 1));
+        }
+        Task previous = items[id];
+        if (previous != null) {
+            counts[TaskUtils.typeOf(previous).ordinal()]--;
+        }
+        items[id] = task;
+        counts[TaskUtils.typeOf(task).ordinal()]++;
+    }
+
+    private void erase(int id) {
+        counts[TaskUtils.typeOf(items[id]).ordinal()]--;
+        items[id] = null;
+    }
+
+    private class View<T extends Task> extends ArrayIdMap<T> {
+        View(TaskType type) {
+            super(type);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int id) {
+            Task task = at(id);
+            return task != null && TaskUtils.typeOf(task) == type ? (T) task : null;
+        }
+
+        @Override
+        protected int bound() {
+            return items.length;
+        }
+
+        @Override
+        protected boolean occupied(int id) {
+            return at(id) != null;
+        }
+
+        @Override
+        protected void store(int id, T value) {
+            TaskStore.this.store(id, value);
+        }
+
+        @Override
+        protected void erase(int id) {
+            TaskStore.this.erase(id);
+        }
+
+        @Override
+        public int size() {
+            return counts[type.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package manager;
+
+import tasks.Task;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Полнотекстовый индекс по словам названий и описаний задач всех типов.
+ * <p>
+ * Текст режется на слова по всему, что не буква и не цифра ({@link Character#isLetterOrDigit}), так что кириллица
+ * и латиница обрабатываются одинаково; слова приводятся к нижнему регистру, {@code ё} — к {@code е}. Для каждого
+ * слова хранится отсортированный массив id задач, в которых оно встречается. Запрос — слова через пробел, которые
+ * должны встретиться все (AND), группы таких слов разделяются {@code OR}:
+ * <pre>
+ * отчёт май OR релиз   =   (отчёт AND май) OR релиз
+ * </pre>
+ * Пересечение идёт от самого короткого списка с бинарным поиском по остальным, объединение — слиянием,
+ * поэтому запрос стоит порядка размера самого короткого списка в группе, а не числа задач.
+ * <p>
+ * Как и {@link TaskIndex}, индекс строится при первом поиске и дальше обновляется менеджером на каждое изменение.
+ * Массовая очистка одного типа вычёркивает его id из всех списков за один проход, не перестраивая индекс.
+ */
+class TextIndex {
+    private static final int MAGIC = 0x4B425458;
+    private static final String OR = "OR";
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private volatile boolean enabled;
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    synchronized void build(Collection<? extends Task> tasks, Collection<? extends Task> epics,
+                            Collection<? extends Task> subTasks) {
+        if (enabled) {
+            return;
+        }
+        enabled = true;
+        tasks.forEach(task -> add(task.getId(), terms(task)));
+        epics.forEach(task -> add(task.getId(), terms(task)));
+        subTasks.forEach(task -> add(task.getId(), terms(task)));
+    }
+
+    /**
+     * Учитывает замену снимка задачи: {@code previous == null} — задача создана, {@code current == null} — удалена.
+     * Если название и описание не менялись, как при пересчёте эпика, ничего не делает.
+     */
+    void update(Task previous, Task current) {
+        if (enabled) {
+            apply(previous, current);
+        }
+    }
+
+    private synchronized void apply(Task previous, Task current) {
+        if (!enabled) {
+            return;
+        }
+        if (previous != null && current != null && Objects.equals(previous.getTitle(), current.getTitle())
+                && Objects.equals(previous.getDescription(), current.getDescription())) {
+            return;
+        }
+        Set<String> removed = previous == null ? Set.of() : terms(previous);
+        Set<String> added = current == null ? Set.of() : terms(current);
+        for (String term : removed) {
+            if (!added.contains(term)) {
+                Postings list = postings.get(term);
+                if (list != null && list.remove(previous.getId()) && list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+        for (String term : added) {
+            if (!removed.contains(term)) {
+                postings.computeIfAbsent(term, t -> new Postings()).add(current.getId());
+            }
+        }
+    }
+
+    /**
+     * Удаляет из индекса все задачи хранилища {@code source} — перед его массовой очисткой. Задачи других типов
+     * остаются, индекс остаётся включённым. Стоит один проход по всем спискам слов.
+     */
+    synchronized void removeAll(IdMap<? extends Task> source) {
+        if (!enabled || source.isEmpty()) {
+            return;
+        }
+        postings.values().removeIf(list -> list.removeIf(source::containsKey) == 0);
+    }
+
+    /**
+     * Сбрасывает и выключает индекс: он снова построится при следующем поиске.
+     */
+    synchronized void clear() {
+        enabled = false;
+        postings.clear();
+    }
+
+    /**
+     * Не более {@code limit} id задач, подходящих под запрос, по возрастанию.
+     */
+    synchronized int[] search(String query, int limit) {
+        int[] result = new int[0];
+        if (query == null) {
+            return result;
+        }
+        List<String> clause = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals(OR)) {
+                result = union(result, matchAll(clause));
+                clause.clear();
+            } else {
+                clause.addAll(tokenize(word));
+            }
+        }
+        result = union(result, matchAll(clause));
+        return result.length > limit ? Arrays.copyOf(result, limit) : result;
+    }
+
+    /**
+     * Слова текста в нормализованном виде, в порядке появления и с повторами.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean letter = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT).replace('ё', 'е'));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Двоичное представление для хранения рядом с файлом сохранения: для каждого слова — число задач и
+     * разности соседних id в формате varint.
+     */
+    synchronized byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(postings.size());
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                Postings list = entry.getValue();
+                out.writeUTF(entry.getKey());
+                writeVarInt(out, list.size);
+                int previous = 0;
+                for (int i = 0; i < list.size; i++) {
+                    writeVarInt(out, list.ids[i] - previous);
+                    previous = list.ids[i];
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Заменяет содержимое индекса прочитанным из {@link #toBytes()} и включает его.
+     *
+     * @throws IOException если данные обрезаны или записаны не этим классом
+     */
+    synchronized void load(byte[] data, int offset) throws IOException {
+        Map<String, Postings> loaded = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, data.length - offset))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Неизвестный формат индекса");
+            }
+            int terms = in.readInt();
+            for (int t = 0; t < terms; t++) {
+                String term = in.readUTF();
+                int count = readVarInt(in);
+                if (count <= 0 || count > data.length) {
+                    throw new IOException("Неверная длина списка слова " + term);
+                }
+                Postings list = new Postings(count);
+                int id = 0;
+                for (int i = 0; i < count; i++) {
+                    id += readVarInt(in);
+                    list.ids[i] = id;
+                }
+                list.size = count;
+                loaded.put(term, list);
+            }
+            if (in.read() != -1) {
+                throw new IOException("Лишние данные в конце индекса");
+            }
+        }
+        postings.clear();
+        postings.putAll(loaded);
+        enabled = true;
+    }
+
+    private int[] matchAll(List<String> terms) {
+        if (terms.isEmpty()) {
+            return new int[0];
+        }
+        List<Postings> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        Postings shortest = lists.getFirst();
+        int[] result = new int[shortest.size];
+        int count = 0;
+        for (int i = 0; i < shortest.size; i++) {
+            int id = shortest.ids[i];
+            boolean everywhere = true;
+            for (int j = 1; j < lists.size() && everywhere; j++) {
+                everywhere = lists.get(j).indexOf(id) >= 0;
+            }
+            if (everywhere) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int[] union(int[] left, int[] right) {
+        if (left.length == 0) {
+            return right;
+        }
+        if (right.length == 0) {
+            return left;
+        }
+        int[] result = new int[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < left.length || j < right.length) {
+            if (j == right.length || (i < left.length && left[i] < right[j])) {
+                result[count++] = left[i++];
+            } else if (i == left.length || right[j] < left[i]) {
+                result[count++] = right[j++];
+            } else {
+                result[count++] = left[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static Set<String> terms(Task task) {
+        Set<String> terms = new HashSet<>(tokenize(task.getTitle()));
+        terms.addAll(tokenize(task.getDescription()));
+        return terms;
+    }
+
+    private void add(int id, Set<String> terms) {
+        for (String term : terms) {
+            postings.computeIfAbsent(term, t -> new Postings()).add(id);
+        }
+    }
+
+    private static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Индекс обрезан");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Слишком длинное число в индексе");
+    }
+
+    /**
+     * Отсортированный список id. Новые задачи получают растущие id, поэтому вставка почти всегда — дописывание
+     * в конец; вставка в середину и удаление сдвигают хвост массива.
+     */
+    private static class Postings {
+        private int[] ids;
+        private int size;
+
+        Postings() {
+            this(4);
+        }
+
+        Postings(int capacity) {
+            ids = new int[Math.max(capacity, 1)];
+        }
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0) {
+                    return;
+                }
+                insert(-index - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        boolean remove(int id) {
+            int index = indexOf(id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            if (ids.length > 4 && size * 4 < ids.length) {
+                ids = Arrays.copyOf(ids, ids.length / 2);
+            }
+            return true;
+        }
+
+        /**
+         * Удаляет подходящие id одним сдвигом и возвращает оставшийся размер.
+         */
+        int removeIf(IntPredicate filter) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!filter.test(ids[i])) {
+                    ids[kept++] = ids[i];
+                }
+            }
+            size = kept;
+            if (ids.length > 4 && size * 4 < ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(size * 2, 4));
+            }
+            return size;
+        }
+
+        int indexOf(int id) {
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+
+        private void insert(int index, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package manager;
+
+import java.time.LocalDateTime;
+
+/**
+ * Полуинтервал времени [start, end).
+ */
+public record TimeSlot(LocalDateTime start, LocalDateTime end) {
+}
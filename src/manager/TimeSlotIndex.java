@@ -0,0 +1,226 @@
+package manager;
+
+import tasks.Task;
+import tasks.TaskType;
+import tasks.TaskUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Индекс задач по времени начала.
+ * <p>
+ * Хранит только задачи с заданным startTime. Так как менеджер не допускает пересечений,
+ * задачи, упорядоченные по (startTime, endTime, id), упорядочены и по endTime. Поэтому для проверки
+ * пересечения достаточно посмотреть на ближайшего соседа слева от конца интервала: O(log n) без копирования.
+ * <p>
+ * Id задач дополнительно разложены по типам, чтобы очистка одного типа стоила O(k log n) для k задач этого типа,
+ * а если других типов в индексе нет — O(1).
+ */
+public class TimeSlotIndex implements Iterable<Task> {
+    private static final Comparator<Task> SLOT_ORDER = Comparator.comparing(Task::getStartTime)
+            .thenComparing(Task::getEndTime)
+            .thenComparingInt(Task::getId);
+
+    private final TreeSet<Task> slots = new TreeSet<>(SLOT_ORDER);
+    private final HashMap<Integer, Task> byId = new HashMap<>();
+    private final EnumMap<TaskType, HashSet<Integer>> idsByType = new EnumMap<>(TaskType.class);
+
+    public TimeSlotIndex() {
+        for (TaskType type : TaskType.values()) {
+            idsByType.put(type, new HashSet<>());
+        }
+    }
+
+    public void add(Task task) {
+        if (task == null || task.getStartTime() == null) {
+            return;
+        }
+        remove(task.getId());
+        slots.add(task);
+        byId.put(task.getId(), task);
+        idsByType.get(TaskUtils.typeOf(task)).add(task.getId());
+    }
+
+    public Task remove(int id) {
+        Task removed = byId.remove(id);
+        if (removed != null) {
+            slots.remove(removed);
+            idsByType.get(TaskUtils.typeOf(removed)).remove(id);
+        }
+        return removed;
+    }
+
+    /**
+     * Удаляет из индекса все задачи одного типа.
+     */
+    public void removeAll(TaskType type) {
+        HashSet<Integer> ids = idsByType.get(type);
+        if (ids.size() == slots.size()) {
+            clear();
+            return;
+        }
+        for (Integer id : ids) {
+            slots.remove(byId.remove(id));
+        }
+        ids.clear();
+    }
+
+    public void clear() {
+        slots.clear();
+        byId.clear();
+        idsByType.values().forEach(HashSet::clear);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public Task get(int id) {
+        return byId.get(id);
+    }
+
+    public boolean isEmpty() {
+        return slots.isEmpty();
+    }
+
+    /**
+     * Проверяет, пересекается ли задача хотя бы с одной задачей индекса. Задачи без времени ни с чем не пересекаются.
+     */
+    public boolean isCrossing(Task task) {
+        if (task.getStartTime() == null) {
+            return false;
+        }
+        Task lower = lastStartingBefore(task.getEndTime());
+        return lower != null && isCrossing(lower, task.getStartTime(), task.getEndTime());
+    }
+
+    /**
+     * Возвращает задачи, пересекающиеся с полуинтервалом [from, to), в порядке времени начала: O(log n + k).
+     * Задачи не пересекаются, поэтому из начавшихся раньше {@code from} в окно может заходить только последняя,
+     * а остальные лежат в представлении {@code subSet} между {@code from} и {@code to}.
+     */
+    public ArrayList<Task> getCrossing(LocalDateTime from, LocalDateTime to) {
+        ArrayList<Task> result = new ArrayList<>();
+        if (from == null || to == null || to.isBefore(from)) {
+            return result;
+        }
+        Task before = lastStartingBefore(from);
+        if (before != null && isCrossing(before, from, to)) {
+            result.add(before);
+        }
+        for (Task task : slots.subSet(probe(from), true, probe(to), false)) {
+            if (isCrossing(task, from, to)) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Занятые промежутки внутри [from, to): задачи, идущие вплотную, сливаются в один промежуток, края обрезаются
+     * по окну, задачи нулевой длительности времени не занимают.
+     */
+    public ArrayList<TimeSlot> getBusy(LocalDateTime from, LocalDateTime to) {
+        ArrayList<TimeSlot> result = new ArrayList<>();
+        LocalDateTime start = null;
+        LocalDateTime end = null;
+        for (Task task : getCrossing(from, to)) {
+            if (!task.getEndTime().isAfter(task.getStartTime())) {
+                continue;
+            }
+            if (end != null && !task.getStartTime().isAfter(end)) {
+                end = task.getEndTime();
+                continue;
+            }
+            if (end != null) {
+                result.add(new TimeSlot(start, end));
+            }
+            start = task.getStartTime().isBefore(from) ? from : task.getStartTime();
+            end = task.getEndTime();
+        }
+        if (end != null) {
+            result.add(new TimeSlot(start, end.isAfter(to) ? to : end));
+        }
+        return result;
+    }
+
+    /**
+     * Самое раннее начало не раньше {@code after}, при котором задача длительностью {@code duration} ни с чем
+     * не пересечётся. Идёт по задачам от {@code after} и останавливается на первом достаточно большом промежутке:
+     * O(log n + k), где k — число перешагнутых задач.
+     */
+    public LocalDateTime findFree(Duration duration, LocalDateTime after) {
+        LocalDateTime candidate = after;
+        Task before = lastStartingBefore(after);
+        if (before != null && before.getEndTime().isAfter(candidate)) {
+            candidate = before.getEndTime();
+        }
+        for (Task task : slots.tailSet(probe(candidate), true)) {
+            if (!task.getStartTime().isBefore(candidate.plus(duration))) {
+                break;
+            }
+            if (task.getEndTime().isAfter(candidate)) {
+                candidate = task.getEndTime();
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * Возвращает не более {@code limit} задач с началом не раньше {@code from}: O(log n + limit).
+     */
+    public ArrayList<Task> getStartingFrom(LocalDateTime from, int limit) {
+        return take(slots.tailSet(probe(from), true).iterator(), limit);
+    }
+
+    /**
+     * Возвращает не более {@code limit} задач, идущих в порядке приоритета строго после позиции
+     * ({@code start}, {@code end}, {@code id}): O(log n + limit). Задачи с такой позицией в индексе может уже не быть.
+     */
+    public ArrayList<Task> getStartingAfter(LocalDateTime start, LocalDateTime end, int id, int limit) {
+        Task last = new Task(null, null, null, id, Duration.between(start, end), start);
+        return take(slots.tailSet(last, false).iterator(), limit);
+    }
+
+    private ArrayList<Task> take(Iterator<Task> it, int limit) {
+        ArrayList<Task> result = new ArrayList<>(Math.min(limit, slots.size()));
+        while (result.size() < limit && it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    public Stream<Task> stream() {
+        return slots.stream();
+    }
+
+    public ArrayList<Task> toList() {
+        return new ArrayList<>(slots);
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return slots.iterator();
+    }
+
+    private Task lastStartingBefore(LocalDateTime time) {
+        return slots.lower(probe(time));
+    }
+
+    private static Task probe(LocalDateTime time) {
+        return new Task(null, null, null, Integer.MIN_VALUE, Duration.ZERO, time);
+    }
+
+    private static boolean isCrossing(Task task, LocalDateTime from, LocalDateTime to) {
+        return task.getStartTime().isBefore(to) && task.getEndTime().isAfter(from);
+    }
+}
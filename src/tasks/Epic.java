@@ -10,94 +10,88 @@ import static tasks.TaskUtils.dateToString;
 
 public class Epic extends Task {
 
-    private final ArrayList<SubTask> subTasks;
+    private final EpicSubTasks subTasks;
     private LocalDateTime endTime;
 
     public Epic(Epic epic) {
-        this(epic.title, epic.description, epic.status, epic.id, epic.subTasks, epic.duration, epic.startTime, epic.endTime);
+        this(epic.title, epic.description, epic.status, epic.id, epic.subTasks.copy(), epic.duration, epic.startTime, epic.endTime);
     }
 
     public Epic(String title, String description, Status status, int id, List<SubTask> subTasks, Duration duration, LocalDateTime startTime, LocalDateTime endTime) {
+        this(title, description, status, id, new EpicSubTasks(), duration, startTime, endTime);
+        subTasks.forEach(this.subTasks::add);
+    }
+
+    private Epic(String title, String description, Status status, int id, EpicSubTasks subTasks, Duration duration, LocalDateTime startTime, LocalDateTime endTime) {
         super(title, description, status, id, duration, startTime);
-        this.subTasks = (ArrayList<SubTask>) subTasks;
+        this.subTasks = subTasks;
         this.endTime = endTime == null ? null : endTime.truncatedTo(ChronoUnit.SECONDS);
     }
 
     public Epic(String title, String description) {
         super(title, description);
-        this.subTasks = new ArrayList<>();
+        this.subTasks = new EpicSubTasks();
     }
 
     public ArrayList<SubTask> getSubTasks() {
-        return subTasks;
+        return subTasks.toList();
+    }
+
+    /**
+     * id подзадач в порядке добавления, без копирования самих подзадач.
+     */
+    public int[] getSubTaskIds() {
+        return subTasks.ids();
+    }
+
+    public int getSubTasksCount() {
+        return subTasks.size();
+    }
+
+    public boolean hasSubTask(int id) {
+        return subTasks.contains(id);
     }
 
     public void setEpicStatus() {
-        if (subTasks.isEmpty()) {
-            status = Status.NEW;
-            return;
-        }
-        Status firstStatus = subTasks.getFirst().status;
-        if (firstStatus == Status.IN_PROGRESS) {
-            status = Status.IN_PROGRESS;
-            return;
-        }
-        for (int i = 1; i < subTasks.size(); i++) {
-            if (subTasks.get(i).status != firstStatus) {
-                status = Status.IN_PROGRESS;
-                return;
-            }
-        }
-        status = firstStatus;
+        checkMutable();
+        status = subTasks.status();
     }
 
     public void addSubTask(SubTask subTask) {
-        if (!subTasks.contains(subTask)) {
-            subTasks.add(subTask);
+        checkMutable();
+        if (subTasks.add(subTask)) {
             setEpicStatus();
             calculateTimes();
         }
     }
 
     public void clearSubTask(SubTask subTask) {
-        if (subTasks.contains(subTask)) {
-            subTasks.remove(subTask);
+        checkMutable();
+        if (subTasks.remove(subTask.getId())) {
             setEpicStatus();
             calculateTimes();
         }
     }
 
     public void updateSubTask(SubTask subTask) {
-        if (subTasks.contains(subTask)) {
-            subTasks.remove(subTask);
-            subTasks.add(subTask);
+        checkMutable();
+        if (subTasks.replace(subTask)) {
             setEpicStatus();
             calculateTimes();
         }
     }
 
     public void clearSubTasks() {
+        checkMutable();
         subTasks.clear();
         setEpicStatus();
         calculateTimes();
     }
 
     private void calculateTimes() {
-        startTime = null;
-        endTime = null;
-        if (subTasks == null) {
-            duration = Duration.ZERO;
-        } else {
-            subTasks.forEach(task -> {
-                if (startTime == null || task.startTime.isBefore(startTime)) {
-                    startTime = task.startTime;
-                }
-                duration = duration.plus(task.duration);
-                if (endTime == null || task.getEndTime().isAfter(endTime)) {
-                    endTime = task.getEndTime();
-                }
-            });
-        }
+        duration = subTasks.duration();
+        startTime = subTasks.startTime();
+        endTime = subTasks.endTime();
     }
 
     @Override
@@ -105,15 +99,24 @@ public class Epic extends Task {
         return endTime;
     }
 
+    /**
+     * Копия получает собственное хранилище подзадач, которое разделяет с оригиналом неизменяемые деревья,
+     * поэтому копирование и снимок эпика не зависят от числа подзадач, а изменения копии не видны в оригинале.
+     */
     @Override
     public Epic copy() {
         return new Epic(this);
     }
 
+    @Override
+    public Epic snapshot() {
+        return (Epic) super.snapshot();
+    }
+
     @Override
     public String toString() {
         return "Epic{" +
-                "subTasks=" + subTasks +
+                "subTasks=" + subTasks.toList() +
                 ", title='" + title + '\'' +
                 ", id=" + id +
                 ", status=" + status +
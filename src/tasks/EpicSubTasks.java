@@ -0,0 +1,170 @@
+package tasks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Подзадачи эпика вместе с агрегатами по ним: счётчики статусов, суммарная длительность и мультимножества времён
+ * начала и окончания. Каждое изменение обновляет агрегаты за O(log n), не обходя все подзадачи.
+ * <p>
+ * Вклад подзадачи запоминается в момент добавления, поэтому изменение самого объекта подзадачи в обход эпика
+ * не ломает счётчики.
+ * <p>
+ * Все отображения неизменяемые ({@link PersistentSortedMap}), поэтому {@link #copy()} стоит O(1): копия и оригинал
+ * разделяют деревья, но изменение одного из них строит новые узлы и не видно в другом.
+ */
+class EpicSubTasks {
+    private PersistentSortedMap<Integer, Entry> byId = PersistentSortedMap.empty(Comparator.naturalOrder());
+    private PersistentSortedMap<Long, Entry> bySeq = PersistentSortedMap.empty(Comparator.naturalOrder());
+    private PersistentSortedMap<LocalDateTime, Integer> starts = PersistentSortedMap.empty(Comparator.naturalOrder());
+    private PersistentSortedMap<LocalDateTime, Integer> ends = PersistentSortedMap.empty(Comparator.naturalOrder());
+    private final int[] statusCounts;
+    private Duration duration = Duration.ZERO;
+    private long nextSeq;
+
+    EpicSubTasks() {
+        statusCounts = new int[Status.values().length];
+    }
+
+    private EpicSubTasks(EpicSubTasks other) {
+        byId = other.byId;
+        bySeq = other.bySeq;
+        starts = other.starts;
+        ends = other.ends;
+        statusCounts = other.statusCounts.clone();
+        duration = other.duration;
+        nextSeq = other.nextSeq;
+    }
+
+    /**
+     * Независимая копия: дальнейшие изменения копии не видны в оригинале и наоборот.
+     */
+    EpicSubTasks copy() {
+        return new EpicSubTasks(this);
+    }
+
+    boolean contains(int id) {
+        return byId.get(id) != null;
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    boolean add(SubTask subTask) {
+        if (contains(subTask.getId())) {
+            return false;
+        }
+        put(new Entry(subTask, nextSeq++));
+        return true;
+    }
+
+    boolean replace(SubTask subTask) {
+        Entry previous = byId.get(subTask.getId());
+        if (previous == null) {
+            return false;
+        }
+        account(previous, -1);
+        put(new Entry(subTask, previous.seq));
+        return true;
+    }
+
+    boolean remove(int id) {
+        Entry entry = byId.get(id);
+        if (entry == null) {
+            return false;
+        }
+        byId = byId.remove(id);
+        bySeq = bySeq.remove(entry.seq);
+        account(entry, -1);
+        return true;
+    }
+
+    void clear() {
+        byId = PersistentSortedMap.empty(Comparator.naturalOrder());
+        bySeq = PersistentSortedMap.empty(Comparator.naturalOrder());
+        starts = PersistentSortedMap.empty(Comparator.naturalOrder());
+        ends = PersistentSortedMap.empty(Comparator.naturalOrder());
+        Arrays.fill(statusCounts, 0);
+        duration = Duration.ZERO;
+    }
+
+    Status status() {
+        int total = byId.size();
+        if (total == 0 || statusCounts[Status.NEW.ordinal()] == total) {
+            return Status.NEW;
+        }
+        if (statusCounts[Status.DONE.ordinal()] == total) {
+            return Status.DONE;
+        }
+        return Status.IN_PROGRESS;
+    }
+
+    Duration duration() {
+        return duration;
+    }
+
+    LocalDateTime startTime() {
+        return starts.firstKey();
+    }
+
+    LocalDateTime endTime() {
+        return ends.lastKey();
+    }
+
+    int[] ids() {
+        int[] result = new int[bySeq.size()];
+        int[] i = {0};
+        bySeq.forEach((seq, entry) -> result[i[0]++] = entry.subTask.getId());
+        return result;
+    }
+
+    ArrayList<SubTask> toList() {
+        ArrayList<SubTask> result = new ArrayList<>(bySeq.size());
+        bySeq.forEach((seq, entry) -> result.add(entry.subTask));
+        return result;
+    }
+
+    private void put(Entry entry) {
+        byId = byId.put(entry.subTask.getId(), entry);
+        bySeq = bySeq.put(entry.seq, entry);
+        account(entry, 1);
+    }
+
+    private void account(Entry entry, int sign) {
+        statusCounts[entry.status.ordinal()] += sign;
+        duration = sign > 0 ? duration.plus(entry.duration) : duration.minus(entry.duration);
+        if (entry.startTime != null) {
+            starts = count(starts, entry.startTime, sign);
+            ends = count(ends, entry.endTime, sign);
+        }
+    }
+
+    private static PersistentSortedMap<LocalDateTime, Integer> count(
+            PersistentSortedMap<LocalDateTime, Integer> multiset, LocalDateTime time, int sign) {
+        Integer current = multiset.get(time);
+        int updated = (current == null ? 0 : current) + sign;
+        return updated == 0 ? multiset.remove(time) : multiset.put(time, updated);
+    }
+
+    private static class Entry {
+        private final SubTask subTask;
+        private final long seq;
+        private final Status status;
+        private final Duration duration;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+
+        Entry(SubTask subTask, long seq) {
+            this.subTask = subTask;
+            this.seq = seq;
+            this.status = subTask.getStatus();
+            this.duration = subTask.getDuration();
+            this.startTime = subTask.getStartTime();
+            this.endTime = subTask.getEndTime();
+        }
+    }
+}
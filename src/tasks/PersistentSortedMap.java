@@ -0,0 +1,142 @@
+package tasks;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
+/**
+ * Неизменяемое упорядоченное отображение — декартово дерево с копированием пути.
+ * <p>
+ * Изменение не трогает существующие узлы, а возвращает новое отображение, которое разделяет с прежним всё, кроме
+ * O(log n) узлов на пути к изменённому ключу. Поэтому копия стоит O(1), а старые версии видны без изменений
+ * любым читателям, в том числе из других потоков.
+ */
+final class PersistentSortedMap<K, V> {
+    private final Comparator<? super K> comparator;
+    private final Node<K, V> root;
+    private final int size;
+
+    private PersistentSortedMap(Comparator<? super K> comparator, Node<K, V> root, int size) {
+        this.comparator = comparator;
+        this.root = root;
+        this.size = size;
+    }
+
+    static <K, V> PersistentSortedMap<K, V> empty(Comparator<? super K> comparator) {
+        return new PersistentSortedMap<>(comparator, null, 0);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp == 0) {
+                return node.value;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    PersistentSortedMap<K, V> put(K key, V value) {
+        boolean exists = get(key) != null;
+        return new PersistentSortedMap<>(comparator, insert(root, key, value), exists ? size : size + 1);
+    }
+
+    PersistentSortedMap<K, V> remove(K key) {
+        if (get(key) == null) {
+            return this;
+        }
+        return new PersistentSortedMap<>(comparator, delete(root, key), size - 1);
+    }
+
+    K firstKey() {
+        Node<K, V> node = root;
+        while (node != null && node.left != null) {
+            node = node.left;
+        }
+        return node == null ? null : node.key;
+    }
+
+    K lastKey() {
+        Node<K, V> node = root;
+        while (node != null && node.right != null) {
+            node = node.right;
+        }
+        return node == null ? null : node.key;
+    }
+
+    /**
+     * Обходит пары по возрастанию ключей.
+     */
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        forEach(root, action);
+    }
+
+    private static <K, V> void forEach(Node<K, V> node, BiConsumer<? super K, ? super V> action) {
+        while (node != null) {
+            forEach(node.left, action);
+            action.accept(node.key, node.value);
+            node = node.right;
+        }
+    }
+
+    private Node<K, V> insert(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, ThreadLocalRandom.current().nextInt(), null, null);
+        }
+        int cmp = comparator.compare(key, node.key);
+        if (cmp == 0) {
+            return new Node<>(key, value, node.priority, node.left, node.right);
+        }
+        if (cmp < 0) {
+            Node<K, V> left = insert(node.left, key, value);
+            if (left.priority > node.priority) {
+                return new Node<>(left.key, left.value, left.priority, left.left,
+                        new Node<>(node.key, node.value, node.priority, left.right, node.right));
+            }
+            return new Node<>(node.key, node.value, node.priority, left, node.right);
+        }
+        Node<K, V> right = insert(node.right, key, value);
+        if (right.priority > node.priority) {
+            return new Node<>(right.key, right.value, right.priority,
+                    new Node<>(node.key, node.value, node.priority, node.left, right.left), right.right);
+        }
+        return new Node<>(node.key, node.value, node.priority, node.left, right);
+    }
+
+    private Node<K, V> delete(Node<K, V> node, K key) {
+        int cmp = comparator.compare(key, node.key);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            return new Node<>(node.key, node.value, node.priority, delete(node.left, key), node.right);
+        }
+        return new Node<>(node.key, node.value, node.priority, node.left, delete(node.right, key));
+    }
+
+    private static <K, V> Node<K, V> merge(Node<K, V> left, Node<K, V> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return new Node<>(left.key, left.value, left.priority, left.left, merge(left.right, right));
+        }
+        return new Node<>(right.key, right.value, right.priority, merge(left, right.left), right.right);
+    }
+
+    private record Node<K, V>(K key, V value, int priority, Node<K, V> left, Node<K, V> right) {
+    }
+}
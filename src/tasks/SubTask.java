@@ -31,6 +31,11 @@ public class SubTask extends Task {
         return new SubTask(this);
     }
 
+    @Override
+    public SubTask snapshot() {
+        return (SubTask) super.snapshot();
+    }
+
     @Override
     public String toString() {
         return "SubTask{" +
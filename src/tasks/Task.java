@@ -8,6 +8,11 @@ import java.util.Objects;
 
 import static tasks.TaskUtils.dateToString;
 
+/**
+ * Задача. Менеджер хранит и отдаёт на чтение неизменяемые снимки ({@link #snapshot()}): их сеттеры бросают
+ * {@link UnsupportedOperationException}. Чтобы изменить задачу, полученную из менеджера, нужно взять
+ * {@link #copy()} и передать её в {@code update}.
+ */
 public class Task {
 
     public static final DateTimeFormatter DATE_TIME_FORMATER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss");
@@ -17,6 +22,7 @@ public class Task {
     protected String description;
     protected Duration duration = Duration.ZERO;
     protected LocalDateTime startTime;
+    private boolean snapshot;
 
     public Task(Task task) {
         this(task.title, task.description, task.status, task.id, task.duration, task.startTime);
@@ -60,18 +66,22 @@ public class Task {
     }
 
     public void setId(int id) {
+        checkMutable();
         this.id = id;
     }
 
     public void setTitle(String title) {
+        checkMutable();
         this.title = title;
     }
 
     public void setStatus(Status status) {
+        checkMutable();
         this.status = status;
     }
 
     public void setDescription(String description) {
+        checkMutable();
         this.description = description;
     }
 
@@ -79,6 +89,28 @@ public class Task {
         return new Task(this);
     }
 
+    /**
+     * Возвращает неизменяемый снимок задачи. Снимок снимка — он сам, поэтому повторный вызов ничего не выделяет.
+     */
+    public Task snapshot() {
+        if (snapshot) {
+            return this;
+        }
+        Task result = copy();
+        result.snapshot = true;
+        return result;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    protected void checkMutable() {
+        if (snapshot) {
+            throw new UnsupportedOperationException("Снимок задачи " + id + " нельзя изменить, используйте copy()");
+        }
+    }
+
     public LocalDateTime getEndTime() {
         return startTime == null ? null : startTime.plus(duration);
     }
@@ -1,23 +1,154 @@
 package tasks;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 
 import static tasks.TaskType.*;
 
 public class TaskUtils {
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
     public static String toString(Task task) {
-        return String.format("%s,%s,%s,%s,%s,%s,%s,%s,%n", task.getId(), TASK, task.getTitle(), task.getStatus(), task.getDescription(), task.getDuration().toMinutes(), dateToString(task.getStartTime()), dateToString(task.getEndTime()));
+        return appendCsvRow(new StringBuilder(96), task, TASK).toString();
     }
 
     public static String toString(SubTask task) {
-        return String.format("%s,%s,%s,%s,%s,%s,%s,%s,%s%n", task.getId(), SUBTASK, task.getTitle(), task.getStatus(), task.getDescription(), task.getDuration().toMinutes(), dateToString(task.getStartTime()), dateToString(task.getEndTime()), task.getCurrentEpic().getId());
+        return appendCsvRow(new StringBuilder(96), task, SUBTASK).toString();
     }
 
     public static String toString(Epic task) {
-        return String.format("%s,%s,%s,%s,%s,%s,%s,%s,%n", task.getId(), EPIC, task.getTitle(), task.getStatus(), task.getDescription(), task.getDuration().toMinutes(), dateToString(task.getStartTime()), dateToString(task.getEndTime()));
+        return appendCsvRow(new StringBuilder(96), task, EPIC).toString();
+    }
+
+    public static String toCsvRow(Task task) {
+        return appendCsvRow(new StringBuilder(96), task).toString();
+    }
+
+    /**
+     * Дописывает строку сохранения в {@code sb} без промежуточных строк: числа и даты пишутся посимвольно.
+     * Название и описание с запятыми, кавычками или переводами строк берутся в кавычки по правилам CSV.
+     */
+    public static StringBuilder appendCsvRow(StringBuilder sb, Task task) {
+        return appendCsvRow(sb, task, typeOf(task));
+    }
+
+    private static StringBuilder appendCsvRow(StringBuilder sb, Task task, TaskType type) {
+        sb.append(task.getId()).append(SEPARATOR).append(type.name()).append(SEPARATOR);
+        appendField(sb, task.getTitle()).append(SEPARATOR).append(task.getStatus().name()).append(SEPARATOR);
+        appendField(sb, task.getDescription()).append(SEPARATOR).append(task.getDuration().toMinutes()).append(SEPARATOR);
+        appendDate(sb, task.getStartTime()).append(SEPARATOR);
+        appendDate(sb, task.getEndTime()).append(SEPARATOR);
+        if (type == SUBTASK) {
+            sb.append(((SubTask) task).getCurrentEpic().getId());
+        }
+        return sb.append('\n');
+    }
+
+    /**
+     * Разбивает строку сохранения на поля, снимая кавычки CSV. В отличие от {@code split(",")},
+     * пустые поля в конце строки сохраняются.
+     */
+    public static String[] splitCsvRow(String row) {
+        ArrayList<String> fields = new ArrayList<>(9);
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            field.setLength(0);
+            if (i < row.length() && row.charAt(i) == QUOTE) {
+                i++;
+                while (true) {
+                    if (i >= row.length()) {
+                        throw new IllegalArgumentException("Незакрытая кавычка в строке: " + row);
+                    }
+                    char c = row.charAt(i++);
+                    if (c == QUOTE) {
+                        if (i < row.length() && row.charAt(i) == QUOTE) {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    field.append(c);
+                }
+            }
+            int end = row.indexOf(SEPARATOR, i);
+            if (end < 0) {
+                end = row.length();
+            }
+            field.append(row, i, end);
+            fields.add(field.toString());
+            if (end == row.length()) {
+                return fields.toArray(new String[0]);
+            }
+            i = end + 1;
+        }
+    }
+
+    public static TaskType typeOf(Task task) {
+        return switch (task) {
+            case SubTask subTask -> SUBTASK;
+            case Epic epic -> EPIC;
+            default -> TASK;
+        };
     }
 
     public static String dateToString(LocalDateTime time) {
         return time == null ? "null" : time.format(Task.DATE_TIME_FORMATER);
     }
+
+    public static LocalDateTime stringToDate(String time) {
+        return time.equals("null") ? null : LocalDateTime.parse(time, Task.DATE_TIME_FORMATER);
+    }
+
+    private static StringBuilder appendField(StringBuilder sb, String value) {
+        if (value == null || !needsQuotes(value)) {
+            return sb.append(value);
+        }
+        sb.append(QUOTE);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) {
+                sb.append(QUOTE);
+            }
+            sb.append(c);
+        }
+        return sb.append(QUOTE);
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == SEPARATOR || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Пишет дату в формате {@link Task#DATE_TIME_FORMATER}. Годы вне 0..9999 отдаются самому форматтеру.
+     */
+    private static StringBuilder appendDate(StringBuilder sb, LocalDateTime time) {
+        if (time == null) {
+            return sb.append("null");
+        }
+        int year = time.getYear();
+        if (year < 0 || year > 9999) {
+            return sb.append(time.format(Task.DATE_TIME_FORMATER));
+        }
+        appendDigits(sb, time.getDayOfMonth(), 2).append('.');
+        appendDigits(sb, time.getMonthValue(), 2).append('.');
+        appendDigits(sb, year, 4).append(' ');
+        appendDigits(sb, time.getHour(), 2).append(':');
+        appendDigits(sb, time.getMinute(), 2).append(':');
+        return appendDigits(sb, time.getSecond(), 2);
+    }
+
+    private static StringBuilder appendDigits(StringBuilder sb, int value, int width) {
+        for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            sb.append((char) ('0' + value / divisor % 10));
+        }
+        return sb;
+    }
 }
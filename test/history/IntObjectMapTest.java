@@ -0,0 +1,42 @@
+package history;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IntObjectMapTest {
+
+    @Test
+    void shouldBehaveLikeHashMap() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        HashMap<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "значение " + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void shouldClear() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, "один");
+        map.clear();
+
+        assertNull(map.get(1));
+        assertEquals(0, map.size());
+    }
+}
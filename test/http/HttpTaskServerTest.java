@@ -0,0 +1,203 @@
+package http;
+
+import json.JsonReader;
+import json.TaskJson;
+import manager.ConcurrentTaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.SubTask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpTaskServerTest {
+    private final LocalDateTime start = LocalDateTime.of(2024, 1, 31, 9, 0);
+    private final HttpClient client = HttpClient.newHttpClient();
+    private ConcurrentTaskManager manager;
+    private HttpTaskServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        manager = new ConcurrentTaskManager();
+        server = new HttpTaskServer(manager, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldCreateTask() throws Exception {
+        HttpResponse<String> response = send("POST", "/tasks",
+                "{\"title\":\"Задача, с \\\"кавычками\\\"\",\"description\":\"описание\",\"duration\":30,\"startTime\":\"2024-01-31T09:00:00\"}");
+
+        assertEquals(201, response.statusCode());
+        Task created = manager.getTasks().getFirst();
+        assertEquals("Задача, с \"кавычками\"", created.getTitle());
+        assertEquals(start, created.getStartTime());
+        assertEquals(created.getId(), parse(response.body(), TaskType.TASK).getId());
+    }
+
+    @Test
+    void shouldUpdateTask() throws Exception {
+        Task task = manager.create(new Task("задача", "описание", Duration.ofMinutes(30L), start));
+
+        HttpResponse<String> response = send("POST", "/tasks", "{\"id\":" + task.getId()
+                + ",\"title\":\"задача\",\"description\":\"описание\",\"status\":\"DONE\",\"duration\":30}");
+
+        assertEquals(200, response.statusCode());
+        assertEquals(Status.DONE, manager.getTaskById(task.getId()).getStatus());
+        assertEquals(404, send("POST", "/tasks", "{\"id\":100,\"title\":\"нет такой\"}").statusCode());
+    }
+
+    @Test
+    void shouldReturnTasksAndTaskById() throws Exception {
+        manager.create(new Task("задача 1", "описание", Duration.ofMinutes(30L), start));
+        manager.create(new Task("задача 2", "описание", Duration.ofMinutes(30L), start.plusHours(1L)));
+
+        HttpResponse<String> list = send("GET", "/tasks", null);
+        assertEquals(200, list.statusCode());
+        assertEquals(manager.getTasks(), parseArray(list.body(), TaskType.TASK));
+
+        HttpResponse<String> one = send("GET", "/tasks/1", null);
+        assertEquals(200, one.statusCode());
+        assertEquals("задача 2", parse(one.body(), TaskType.TASK).getTitle());
+        assertEquals(404, send("GET", "/tasks/5", null).statusCode());
+        assertEquals(404, send("GET", "/tasks/abc", null).statusCode());
+    }
+
+    @Test
+    void shouldReturnTasksPage() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            manager.create(new Task("задача " + i, "описание", Duration.ofMinutes(10L), start.plusHours(i)));
+        }
+
+        HttpResponse<String> response = send("GET", "/tasks?afterId=1&limit=2", null);
+
+        assertEquals(List.of(2, 3), parseArray(response.body(), TaskType.TASK).stream().map(Task::getId).toList());
+        assertEquals(400, send("GET", "/tasks?limit=x", null).statusCode());
+    }
+
+    @Test
+    void shouldRejectCrossingTask() throws Exception {
+        manager.create(new Task("задача", "описание", Duration.ofMinutes(30L), start));
+
+        HttpResponse<String> response = send("POST", "/tasks",
+                "{\"title\":\"пересекается\",\"duration\":30,\"startTime\":\"2024-01-31T09:15:00\"}");
+
+        assertEquals(406, response.statusCode());
+        assertEquals(1, manager.getTasks().size());
+    }
+
+    @Test
+    void shouldRejectMalformedJson() throws Exception {
+        assertEquals(400, send("POST", "/tasks", "{\"title\":").statusCode());
+        assertEquals(400, send("POST", "/tasks", "{\"title\":\"задача\",\"type\":\"EPIC\"}").statusCode());
+        assertTrue(manager.getTasks().isEmpty());
+    }
+
+    @Test
+    void shouldDeleteTasks() throws Exception {
+        manager.create(new Task("задача 1", "описание", Duration.ofMinutes(30L), start));
+        manager.create(new Task("задача 2", "описание", Duration.ofMinutes(30L), start.plusHours(1L)));
+
+        assertEquals(204, send("DELETE", "/tasks/0", null).statusCode());
+        assertNull(manager.getTaskById(0));
+        assertEquals(204, send("DELETE", "/tasks", null).statusCode());
+        assertTrue(manager.getTasks().isEmpty());
+    }
+
+    @Test
+    void shouldCreateSubTaskAndReturnEpicSubTasks() throws Exception {
+        Epic epic = manager.create(new Epic("эпик", "описание"));
+
+        HttpResponse<String> created = send("POST", "/subtasks", "{\"title\":\"подзадача\",\"description\":\"описание\","
+                + "\"epic\":" + epic.getId() + ",\"duration\":30,\"startTime\":\"2024-01-31T09:00:00\"}");
+        assertEquals(201, created.statusCode());
+        assertTrue(manager.getHistory().isEmpty(), "Поиск эпика для подзадачи не должен попадать в историю");
+
+        HttpResponse<String> epicJson = send("GET", "/epics/" + epic.getId(), null);
+        assertTrue(epicJson.body().contains("\"subTasks\":[1]"));
+        HttpResponse<String> subTasks = send("GET", "/epics/" + epic.getId() + "/subtasks", null);
+        assertEquals(200, subTasks.statusCode());
+        List<Task> parsed = parseArray(subTasks.body(), TaskType.SUBTASK);
+        assertEquals(1, parsed.size());
+        assertEquals(epic.getId(), ((SubTask) parsed.getFirst()).getCurrentEpic().getId());
+        assertEquals(404, send("POST", "/subtasks", "{\"title\":\"без эпика\",\"epic\":42}").statusCode());
+        assertEquals(404, send("GET", "/epics/42/subtasks", null).statusCode());
+    }
+
+    @Test
+    void shouldReturnHistoryAndPrioritized() throws Exception {
+        Task late = manager.create(new Task("поздняя", "описание", Duration.ofMinutes(30L), start.plusHours(2L)));
+        Task early = manager.create(new Task("ранняя", "описание", Duration.ofMinutes(30L), start));
+        manager.getTaskById(late.getId());
+
+        List<Task> history = parseArray(send("GET", "/history", null).body(), TaskType.TASK);
+        assertEquals(List.of(late.getId()), history.stream().map(Task::getId).toList());
+
+        List<Task> prioritized = parseArray(send("GET", "/prioritized", null).body(), TaskType.TASK);
+        assertEquals(List.of(early.getId(), late.getId()), prioritized.stream().map(Task::getId).toList());
+        List<Task> page = parseArray(send("GET", "/prioritized?from=2024-01-31T10:00:00&limit=5", null).body(), TaskType.TASK);
+        assertEquals(List.of(late.getId()), page.stream().map(Task::getId).toList());
+        List<Task> next = parseArray(send("GET", "/prioritized?afterStart=" + early.getStartTime() + "&afterEnd="
+                + early.getEndTime() + "&afterId=" + early.getId() + "&limit=5", null).body(), TaskType.TASK);
+        assertEquals(List.of(late.getId()), next.stream().map(Task::getId).toList());
+        assertEquals(400, send("GET", "/prioritized?afterId=42&limit=5", null).statusCode());
+        List<Task> window = parseArray(send("GET", "/prioritized?from=2024-01-31T09:15:00&to=2024-01-31T11:00:00", null).body(),
+                TaskType.TASK);
+        assertEquals(List.of(early.getId()), window.stream().map(Task::getId).toList());
+        assertEquals(400, send("GET", "/prioritized?to=tomorrow", null).statusCode());
+        assertEquals(405, send("DELETE", "/history", null).statusCode());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, publisher)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private Task parse(String json, TaskType type) throws IOException {
+        return TaskJson.read(reader(json), type, this::epic);
+    }
+
+    private List<Task> parseArray(String json, TaskType type) throws IOException {
+        List<Task> result = new ArrayList<>();
+        TaskJson.readArray(reader(json), type, this::epic, result::add);
+        return result;
+    }
+
+    private Epic epic(int id) {
+        Epic epic = new Epic("эпик", "описание");
+        epic.setId(id);
+        return epic;
+    }
+
+    private static JsonReader reader(String json) {
+        return new JsonReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
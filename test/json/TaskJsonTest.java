@@ -0,0 +1,124 @@
+package json;
+
+import exceptions.JsonParseException;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.SubTask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskJsonTest {
+    private final LocalDateTime start = LocalDateTime.of(2024, 1, 31, 9, 0);
+
+    @Test
+    void shouldWriteTaskFields() throws IOException {
+        Task task = new Task("задача", "описание", Status.IN_PROGRESS, 3, Duration.ofMinutes(30L), start);
+
+        assertEquals("{\"id\":3,\"type\":\"TASK\",\"title\":\"задача\",\"description\":\"описание\","
+                + "\"status\":\"IN_PROGRESS\",\"duration\":30,\"startTime\":\"2024-01-31T09:00:00\","
+                + "\"endTime\":\"2024-01-31T09:30:00\"}", write(task));
+    }
+
+    @Test
+    void shouldWriteEpicWithSubTaskIds() throws IOException {
+        Epic epic = new Epic("эпик", "описание");
+        epic.setId(1);
+        epic.addSubTask(new SubTask("подзадача", "описание", Status.NEW, 2, Duration.ofMinutes(10L), null, epic));
+        epic.addSubTask(new SubTask("подзадача", "описание", Status.NEW, 5, Duration.ofMinutes(10L), null, epic));
+
+        String json = write(epic);
+        assertTrue(json.endsWith("\"subTasks\":[2,5]}"));
+        assertTrue(json.contains("\"startTime\":null"));
+    }
+
+    @Test
+    void shouldRoundTripEscapedText() throws IOException {
+        String title = "кавычки \" и \\ слэш, перевод\nстроки\tи эмодзи 🚀";
+        Task task = new Task(title, "\u0001", Status.DONE, 7, Duration.ofMinutes(45L), start);
+
+        Task read = read(write(task), TaskType.TASK);
+        assertEquals(title, read.getTitle());
+        assertEquals("\u0001", read.getDescription());
+        assertEquals(Status.DONE, read.getStatus());
+        assertEquals(Duration.ofMinutes(45L), read.getDuration());
+        assertEquals(start, read.getStartTime());
+        assertEquals(7, read.getId());
+    }
+
+    @Test
+    void shouldReadSubTaskAndSkipUnknownFields() throws IOException {
+        Task read = read("{\"title\":\"подзадача\",\"extra\":{\"a\":[1,2.5e3,true,null]},\"epic\":4,"
+                + "\"type\":\"SUBTASK\",\"description\":\"\\u043e\\u043f\\u0438\\u0441\\u0430\\u043d\\u0438\\u0435\"}", TaskType.TASK);
+
+        assertTrue(read instanceof SubTask);
+        SubTask subTask = (SubTask) read;
+        assertEquals(TaskJson.NO_ID, subTask.getId());
+        assertEquals(4, subTask.getCurrentEpic().getId());
+        assertEquals("описание", subTask.getDescription());
+        assertNull(subTask.getStartTime());
+    }
+
+    @Test
+    void shouldReadLongArrayAcrossBufferBoundaries() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter writer = new JsonWriter(out);
+        int count = 2_000;
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task("задача " + i, "описание " + i, Status.NEW, i, Duration.ofMinutes(i), start.plusMinutes(i)));
+        }
+        TaskJson.writeArray(writer, tasks.iterator());
+        writer.flush();
+
+        JsonReader reader = new JsonReader(new ByteArrayInputStream(out.toByteArray()));
+        List<Task> read = new ArrayList<>();
+        assertEquals(count, TaskJson.readArray(reader, TaskType.TASK, this::epic, read::add));
+        for (int i = 0; i < count; i++) {
+            assertEquals("описание " + i, read.get(i).getDescription());
+            assertEquals(start.plusMinutes(i), read.get(i).getStartTime());
+        }
+    }
+
+    @Test
+    void shouldReportMalformedJson() {
+        assertThrows(JsonParseException.class, () -> read("{\"title\":\"задача\"", TaskType.TASK));
+        assertThrows(JsonParseException.class, () -> read("{\"title\" \"задача\"}", TaskType.TASK));
+        assertThrows(JsonParseException.class, () -> read("{\"duration\":1.5}", TaskType.TASK));
+        assertThrows(JsonParseException.class, () -> read("{\"status\":\"LATER\"}", TaskType.TASK));
+        assertThrows(JsonParseException.class, () -> read("{\"title\":\"подзадача\"}", TaskType.SUBTASK));
+    }
+
+    private String write(Task task) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter writer = new JsonWriter(out);
+        TaskJson.write(writer, task);
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private Task read(String json, TaskType type) throws IOException {
+        JsonReader reader = new JsonReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        return TaskJson.read(reader, type, this::epic);
+    }
+
+    private Epic epic(int id) {
+        Epic epic = new Epic("эпик", "описание");
+        epic.setId(id);
+        return epic;
+    }
+}
@@ -0,0 +1,89 @@
+package manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsyncFileBackedTaskManagerTest extends TaskManagerTest<AsyncFileBackedTaskManager> {
+    private File file;
+    private final List<AsyncFileBackedTaskManager> opened = new ArrayList<>();
+
+    @BeforeEach
+    void init() throws IOException {
+        file = File.createTempFile("asyncSave", ".csv");
+    }
+
+    @Override
+    protected AsyncFileBackedTaskManager createTaskManager() {
+        return open(AsyncFileBackedTaskManager.DEFAULT_INTERVAL, AsyncFileBackedTaskManager.DEFAULT_MAX_PENDING_CHANGES);
+    }
+
+    private AsyncFileBackedTaskManager open(Duration interval, int maxPendingChanges) {
+        AsyncFileBackedTaskManager manager = new AsyncFileBackedTaskManager(file, SaveFormat.CSV, interval, maxPendingChanges);
+        opened.add(manager);
+        return manager;
+    }
+
+    @AfterEach
+    void clear() {
+        opened.forEach(AsyncFileBackedTaskManager::close);
+        TestFiles.deleteWithSidecars(file);
+    }
+
+    @Test
+    void shouldWriteOnlyOnFlush() throws IOException {
+        AsyncFileBackedTaskManager taskManager = open(Duration.ofHours(1), 1000);
+        for (int i = 0; i < 10; i++) {
+            taskManager.create(new Task("задача" + i, "описание", Duration.ZERO, null));
+        }
+
+        assertEquals(0, Files.size(file.toPath()));
+        assertEquals(10, taskManager.getPendingChanges());
+
+        taskManager.flush();
+        assertEquals(0, taskManager.getPendingChanges());
+        assertEquals(10, FileBackedTaskManager.loadFromFile(file).getTasks().size());
+    }
+
+    @Test
+    void shouldWriteInBackground() throws InterruptedException {
+        AsyncFileBackedTaskManager taskManager = open(Duration.ofMillis(10), 1000);
+        taskManager.create(task);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (taskManager.getPendingChanges() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(task), FileBackedTaskManager.loadFromFile(file).getTasks());
+    }
+
+    @Test
+    void shouldBlockCallerWhenTooManyChangesPending() {
+        AsyncFileBackedTaskManager taskManager = open(Duration.ofHours(1), 3);
+        for (int i = 0; i < 3; i++) {
+            taskManager.create(new Task("задача" + i, "описание", Duration.ZERO, null));
+        }
+
+        assertEquals(0, taskManager.getPendingChanges());
+        assertEquals(3, FileBackedTaskManager.loadFromFile(file).getTasks().size());
+    }
+
+    @Test
+    void shouldFlushOnClose() {
+        AsyncFileBackedTaskManager taskManager = open(Duration.ofHours(1), 1000);
+        taskManager.create(task);
+        taskManager.close();
+
+        assertEquals(List.of(task), FileBackedTaskManager.loadFromFile(file).getTasks());
+    }
+}
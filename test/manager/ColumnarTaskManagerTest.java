@@ -0,0 +1,66 @@
+package manager;
+
+import org.junit.jupiter.api.Test;
+import tasks.Status;
+import tasks.SubTask;
+import tasks.Task;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
+
+    @Override
+    protected InMemoryTaskManager createTaskManager() {
+        return Managers.getColumnar();
+    }
+
+    @Test
+    @Override
+    void shouldReturnImmutableSnapshot() {
+        InMemoryTaskManager taskManager = createTaskManager();
+        taskManager.create(task);
+
+        Task check = taskManager.getTaskById(0);
+        assertNotSame(check, taskManager.getTaskById(0), "Колоночное хранилище создаёт задачу при чтении");
+        assertEquals(check, taskManager.getTaskById(0));
+        assertThrows(UnsupportedOperationException.class, () -> check.setTitle("другая задача"));
+    }
+
+    @Test
+    void shouldRestoreAllColumns() {
+        InMemoryTaskManager taskManager = createTaskManager();
+        taskManager.create(epic);
+        SubTask saved = taskManager.create(subTask);
+        saved.setStatus(Status.DONE);
+        taskManager.update(saved);
+
+        SubTask check = taskManager.getSubTaskById(saved.getId());
+        assertEquals("подзадача", check.getTitle());
+        assertEquals("я подзадача", check.getDescription());
+        assertEquals(Status.DONE, check.getStatus());
+        assertEquals(Duration.ofMinutes(30L), check.getDuration());
+        assertEquals(subTask.getStartTime(), check.getStartTime());
+        assertEquals(0, check.getCurrentEpic().getId());
+        assertTrue(check.isSnapshot());
+    }
+
+    @Test
+    void shouldShareRepeatedStrings() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        for (int id = 0; id < 100; id++) {
+            store.tasks().put(id, new Task("задача", "одинаковое описание", Status.NEW, id, Duration.ZERO, null));
+        }
+        Task first = store.tasks().get(0);
+
+        assertEquals(2, store.getStringsCount());
+        assertSame(first.getDescription(), store.tasks().get(99).getDescription());
+        store.tasks().clear();
+        assertEquals(0, store.getStringsCount());
+    }
+}
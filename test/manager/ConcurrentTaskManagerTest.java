@@ -0,0 +1,108 @@
+package manager;
+
+import exceptions.ManagerTimeCrossingException;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.SubTask;
+import tasks.Task;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS = 8;
+
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    private static void runAll(List<Callable<Void>> actions) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<Void> future : executor.invokeAll(actions)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldGiveUniqueIdsUnderContention() throws Exception {
+        ConcurrentTaskManager taskManager = createTaskManager();
+        Set<Integer> ids = java.util.concurrent.ConcurrentHashMap.newKeySet();
+
+        runAll(IntStream.range(0, THREADS).<Callable<Void>>mapToObj(t -> () -> {
+            for (int i = 0; i < 500; i++) {
+                ids.add(taskManager.create(new Task("задача", "без времени", Duration.ofMinutes(10L), null)).getId());
+            }
+            return null;
+        }).toList());
+
+        assertEquals(THREADS * 500, ids.size());
+        assertEquals(THREADS * 500, taskManager.getTasks().size());
+    }
+
+    @Test
+    void shouldNotScheduleCrossingTasksFromDifferentThreads() throws Exception {
+        ConcurrentTaskManager taskManager = createTaskManager();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runAll(IntStream.range(0, THREADS).<Callable<Void>>mapToObj(t -> () -> {
+            for (int slot = 0; slot < 200; slot++) {
+                try {
+                    taskManager.create(new Task("задача " + t, "слот " + slot, Duration.ofMinutes(30L), now.plusMinutes(30L * slot)));
+                } catch (ManagerTimeCrossingException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+            return null;
+        }).toList());
+
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        assertEquals(200, prioritized.size(), "Каждый слот занят ровно одной задачей");
+        assertEquals(200 * (THREADS - 1), rejected.get());
+        for (int i = 1; i < prioritized.size(); i++) {
+            assertFalse(prioritized.get(i).getStartTime().isBefore(prioritized.get(i - 1).getEndTime()));
+        }
+    }
+
+    @Test
+    void shouldKeepEpicConsistentUnderConcurrentSubTaskUpdates() throws Exception {
+        ConcurrentTaskManager taskManager = createTaskManager();
+        Epic savedEpic = taskManager.create(new Epic("эпик", "общий эпик"));
+        List<SubTask> created = IntStream.range(0, THREADS * 50)
+                .mapToObj(i -> taskManager.create(new SubTask("подзадача " + i, "описание", savedEpic, Duration.ofMinutes(5L), now.plusMinutes(5L * i))))
+                .toList();
+
+        runAll(IntStream.range(0, THREADS).<Callable<Void>>mapToObj(t -> () -> {
+            for (int i = t; i < created.size(); i += THREADS) {
+                SubTask done = created.get(i).copy();
+                done.setStatus(Status.DONE);
+                taskManager.update(done);
+                taskManager.getEpicById(savedEpic.getId());
+            }
+            return null;
+        }).toList());
+
+        Epic epic = taskManager.getEpicById(savedEpic.getId());
+        assertEquals(created.size(), taskManager.getSubTasksByEpic(epic).size());
+        assertEquals(Status.DONE, epic.getStatus());
+        Set<Integer> uniqueIds = new HashSet<>();
+        taskManager.getSubTasksByEpic(epic).forEach(subTask -> uniqueIds.add(subTask.getId()));
+        assertEquals(created.size(), uniqueIds.size());
+    }
+}
@@ -1,13 +1,19 @@
 package manager;
 
+import exceptions.ManagerImportTaskException;
+import exceptions.ManagerReadSaveFileException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.SubTask;
 import tasks.Task;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -33,7 +39,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
 
     @AfterEach
     void clear() {
-        file.delete();
+        TestFiles.deleteWithSidecars(file);
     }
 
     @Test
@@ -47,7 +53,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         assertEquals(1, Files.readAllLines(emptyFile.toPath()).size());
         assertEquals(SCV_HEAD, Files.readString(emptyFile.toPath()));
 
-        emptyFile.delete();
+        TestFiles.deleteWithSidecars(emptyFile);
     }
 
     @Test
@@ -102,4 +108,198 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
             new FileBackedTaskManager(incorrectFile);
         }, "Создание менеджера из несуществующего фала должно выдать ошибку");
     }
+
+    @Test
+    void shouldLoadRowsWithoutTimeAndWindowsLineEnds() throws IOException {
+        Files.writeString(file.toPath(), SCV_HEAD.trim() + "\r\n", TRUNCATE_EXISTING);
+        Files.writeString(file.toPath(), "0,TASK,Задача,NEW,Без времени,0,null,null,\r\n", APPEND);
+        Files.writeString(file.toPath(), "1,EPIC,Эпик,NEW,Пустой эпик,0,null,null,\r\n", APPEND);
+
+        FileBackedTaskManager fileManager = loadFromFile(file);
+        assertEquals(2, fileManager.getLoadStats().rows());
+        assertEquals("Без времени", fileManager.getTaskById(0).getDescription());
+        assertNull(fileManager.getTaskById(0).getStartTime());
+        assertEquals(0, fileManager.getPrioritizedTasks().size());
+        assertEquals("Пустой эпик", fileManager.getEpicById(1).getDescription());
+    }
+
+    @Test
+    void shouldReportBrokenRow() throws IOException {
+        Files.writeString(file.toPath(), SCV_HEAD, TRUNCATE_EXISTING);
+        Files.writeString(file.toPath(), "0,TASK,Задача,NEW,Описание,30,31.02.2024 10:00:00,31.02.2024 10:30:00,\n", APPEND);
+
+        assertThrows(ManagerImportTaskException.class, () -> loadFromFile(file));
+    }
+
+    @Test
+    void shouldSaveAndLoadBinarySnapshot() {
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(file, SaveFormat.BINARY);
+        taskManager.create(task);
+        taskManager.create(epic);
+        taskManager.create(subTask);
+        taskManager.create(new Task("Без времени", "задача без времени", Duration.ofMinutes(15L), null));
+
+        FileBackedTaskManager fileManager = loadFromFile(file);
+        assertEquals(taskManager.getTasks(), fileManager.getTasks());
+        assertEquals(taskManager.getEpics(), fileManager.getEpics());
+        assertEquals(taskManager.getSubTasks(), fileManager.getSubTasks());
+        assertEquals(taskManager.getPrioritizedTasks(), fileManager.getPrioritizedTasks());
+        assertEquals("я подзадача", fileManager.getSubTaskById(2).getDescription());
+        assertEquals(task.getStartTime(), fileManager.getTaskById(0).getStartTime());
+        assertNull(fileManager.getTaskById(3).getStartTime());
+    }
+
+    @Test
+    void shouldSaveAndLoadJsonSnapshot() throws IOException {
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(file, SaveFormat.JSON);
+        taskManager.create(task);
+        taskManager.create(epic);
+        taskManager.create(subTask);
+        taskManager.create(new Task("Без, времени", "строка\nвторая", Duration.ofMinutes(15L), null));
+
+        assertTrue(Files.readString(file.toPath()).startsWith("[{\"id\":0,\"type\":\"TASK\""));
+        FileBackedTaskManager fileManager = loadFromFile(file);
+        assertEquals(taskManager.getTasks(), fileManager.getTasks());
+        assertEquals(taskManager.getSubTasks(), fileManager.getSubTasks());
+        assertEquals(taskManager.getPrioritizedTasks(), fileManager.getPrioritizedTasks());
+        assertEquals(subTask.getStartTime(), fileManager.getEpicById(1).getStartTime());
+        assertEquals("строка\nвторая", fileManager.getTaskById(3).getDescription());
+        assertEquals(4, fileManager.create(new Epic("эпик 2", "после загрузки")).getId());
+    }
+
+    @Test
+    void shouldReportBrokenJsonSnapshot() throws IOException {
+        Files.writeString(file.toPath(), "[{\"id\":0,\"type\":\"TASK\",\"title\":\"задача\"},{\"id\":1,", TRUNCATE_EXISTING);
+
+        assertThrows(ManagerImportTaskException.class, () -> loadFromFile(file));
+    }
+
+    @Test
+    void shouldConvertCsvToSmallerBinarySnapshot() throws IOException {
+        FileBackedTaskManager taskManager = createTaskManager();
+        taskManager.create(epic);
+        for (int i = 0; i < 100; i++) {
+            taskManager.create(new SubTask("подзадача " + i, "описание", epic, Duration.ofMinutes(10L), now.plusMinutes(10L * i)));
+        }
+        File binary = File.createTempFile("saveFile", ".bin");
+
+        SnapshotConverter.convert(file, binary, SaveFormat.BINARY);
+        FileBackedTaskManager fileManager = loadFromFile(binary);
+
+        assertTrue(Files.size(binary.toPath()) * 2 < Files.size(file.toPath()));
+        assertEquals(taskManager.getSubTasks(), fileManager.getSubTasks());
+        assertEquals(100, fileManager.getEpicById(0).getSubTasks().size());
+        TestFiles.deleteWithSidecars(binary);
+    }
+
+    @Test
+    void shouldSaveBatchOnce() throws IOException {
+        FileBackedTaskManager taskManager = createTaskManager();
+        taskManager.applyBatch(new Batch().create(task).create(epic).create(subTask));
+
+        assertEquals(4, Files.readAllLines(file.toPath()).size());
+        assertEquals(taskManager.getSubTasks(), loadFromFile(file).getSubTasks());
+    }
+
+    @Test
+    void shouldLeaveNoTemporaryFilesAfterSave() {
+        FileBackedTaskManager taskManager = createTaskManager();
+        taskManager.create(task);
+        taskManager.create(epic);
+
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+        assertTrue(new File(file.getPath() + ".sum").exists());
+        assertTrue(new File(file.getPath() + ".bak").exists());
+        assertFalse(loadFromFile(file).isRecoveredFromBackup());
+    }
+
+    @Test
+    void shouldRecoverFromBackupWhenSaveFileIsCorrupted() throws IOException {
+        FileBackedTaskManager taskManager = createTaskManager();
+        taskManager.create(task);
+        taskManager.create(epic);
+        Files.writeString(file.toPath(), "0,TASK,Обрыв", APPEND);
+
+        FileBackedTaskManager fileManager = loadFromFile(file);
+        assertTrue(fileManager.isRecoveredFromBackup());
+        assertEquals(taskManager.getTasks(), fileManager.getTasks());
+        assertTrue(fileManager.getEpics().isEmpty());
+    }
+
+    @Test
+    void shouldFailToLoadHugeOrConflictingIds() throws IOException {
+        Files.writeString(file.toPath(), SCV_HEAD + "2000000000,TASK,Задача,NEW,описание,0,null,null,\n");
+        assertThrows(ManagerImportTaskException.class, () -> loadFromFile(file));
+
+        Files.writeString(file.toPath(), SCV_HEAD + "0,TASK,Задача,NEW,описание,0,null,null,\n"
+                + "0,EPIC,Эпик,NEW,описание,0,null,null,\n", TRUNCATE_EXISTING);
+        assertThrows(ManagerImportTaskException.class, () -> loadFromFile(file));
+    }
+
+    @Test
+    void shouldRejectCorruptedBackup() throws IOException {
+        FileBackedTaskManager taskManager = createTaskManager();
+        taskManager.create(task);
+        taskManager.create(epic);
+        Path backup = Path.of(file.getPath() + ".bak");
+        assertTrue(Files.exists(Path.of(file.getPath() + ".bak.sum")));
+        Files.writeString(backup, Files.readString(backup).replace("я задача", "я подмена"));
+        Files.writeString(file.toPath(), "0,TASK,Обрыв", APPEND);
+
+        assertThrows(ManagerReadSaveFileException.class, () -> loadFromFile(file));
+    }
+
+    @Test
+    void shouldRecoverFromBackupWhenSaveFileIsMissing() {
+        FileBackedTaskManager taskManager = createTaskManager();
+        taskManager.create(task);
+        taskManager.create(epic);
+        file.delete();
+
+        FileBackedTaskManager fileManager = loadFromFile(file);
+        assertTrue(fileManager.isRecoveredFromBackup());
+        assertEquals(taskManager.getTasks(), fileManager.getTasks());
+        assertEquals(1, fileManager.create(new Task("Новая", "после восстановления", Duration.ofMinutes(5L), null)).getId());
+    }
+
+    @Test
+    void shouldEscapeCommasQuotesAndNewLines() throws IOException {
+        FileBackedTaskManager taskManager = createTaskManager();
+        Task saved = taskManager.create(new Task("Купить молоко, хлеб", "Сказать \"спасибо\"\nи уйти\r\n",
+                Duration.ofMinutes(15L), now));
+        taskManager.create(epic);
+        taskManager.create(subTask);
+
+        assertTrue(Files.readString(file.toPath()).contains("\"Купить молоко, хлеб\""));
+        FileBackedTaskManager fileManager = loadFromFile(file);
+        assertEquals(saved.getTitle(), fileManager.getTaskById(0).getTitle());
+        assertEquals(saved.getDescription(), fileManager.getTaskById(0).getDescription());
+        assertEquals(now.withNano(0), fileManager.getTaskById(0).getStartTime());
+        assertEquals(taskManager.getSubTasks(), fileManager.getSubTasks());
+    }
+
+    @Test
+    void shouldLoadPersistedSearchIndex() {
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(file, SaveFormat.CSV, true);
+        taskManager.create(new Task("Отчёт за май", "сдать в бухгалтерию", Duration.ofMinutes(15L), now));
+        taskManager.create(epic);
+        taskManager.create(subTask);
+
+        FileBackedTaskManager fileManager = new FileBackedTaskManager(file, SaveFormat.CSV, true);
+        assertTrue(fileManager.textIndex.isEnabled());
+        assertEquals(List.of(0), fileManager.search("ОТЧЕТ бухгалтерию", 10).stream().map(Task::getId).toList());
+        assertEquals(List.of(1, 2), fileManager.search("эпик OR подзадача", 10).stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void shouldIgnoreStaleSearchIndex() {
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(file, SaveFormat.CSV, true);
+        taskManager.create(new Task("Отчёт за май", "описание", Duration.ofMinutes(15L), now));
+        FileBackedTaskManager withoutIndex = loadFromFile(file);
+        withoutIndex.create(new Task("Отчёт за июнь", "описание", Duration.ofMinutes(15L), now.plusHours(1)));
+
+        FileBackedTaskManager fileManager = new FileBackedTaskManager(file, SaveFormat.CSV, true);
+        assertFalse(fileManager.textIndex.isEnabled());
+        assertEquals(List.of(0, 1), fileManager.search("отчёт", 10).stream().map(Task::getId).toList());
+    }
 }
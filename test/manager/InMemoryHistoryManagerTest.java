@@ -44,6 +44,64 @@ class InMemoryHistoryManagerTest {
         assertEquals(1, history.size(), "История не должна дублироваться.");
     }
 
+    @Test
+    void shouldGetHistoryPage() {
+        historyManager.add(task);
+        historyManager.add(taskTwo);
+        historyManager.add(taskThree);
+
+        assertEquals(List.of(taskTwo, taskThree), historyManager.getHistory(1, 5));
+        assertEquals(List.of(task), historyManager.getHistory(0, 1));
+        assertEquals(List.of(), historyManager.getHistory(3, 1));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyViewed() {
+        historyManager = new InMemoryHistoryManager(2);
+        historyManager.add(task);
+        historyManager.add(taskTwo);
+        historyManager.add(task);
+        historyManager.add(taskThree);
+
+        assertEquals(List.of(task, taskThree), historyManager.getHistory());
+    }
+
+    @Test
+    void shouldEvictByEstimatedBytes() {
+        InMemoryHistoryManager bounded = new InMemoryHistoryManager(InMemoryHistoryManager.UNBOUNDED, 1);
+        bounded.add(task);
+
+        assertEquals(0, bounded.size());
+        assertEquals(0, bounded.getEstimatedBytes());
+    }
+
+    @Test
+    void shouldResolveCurrentVersionById() {
+        TaskManager taskManager = Managers.getDefault(10);
+        Task saved = taskManager.create(task);
+        taskManager.getTaskById(saved.getId());
+
+        saved.setStatus(Status.DONE);
+        taskManager.update(saved);
+        assertEquals(Status.DONE, taskManager.getHistory().getFirst().getStatus());
+
+        taskManager.clearTaskById(saved.getId());
+        assertEquals(List.of(), taskManager.getHistory());
+    }
+
+    @Test
+    void shouldRemoveAllByIds() {
+        historyManager.add(task);
+        historyManager.add(taskTwo);
+        historyManager.add(taskThree);
+
+        historyManager.removeAll(List.of(taskTwo.getId(), 100, 101, 102));
+        assertEquals(List.of(task, taskThree), historyManager.getHistory());
+
+        historyManager.removeAll(List.of(task.getId()));
+        assertEquals(List.of(taskThree), historyManager.getHistory());
+    }
+
     @Test
     void shouldGetHistory() {
         List<Task> history = historyManager.getHistory();
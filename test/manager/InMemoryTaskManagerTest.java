@@ -1,9 +1,50 @@
 package manager;
 
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.SubTask;
+import tasks.Task;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
 
     @Override
     protected InMemoryTaskManager createTaskManager() {
         return new InMemoryTaskManager();
     }
+
+    @Test
+    void shouldNotChangeAnythingWhenIdsAreExhausted() {
+        InMemoryTaskManager taskManager = createTaskManager();
+        Epic created = taskManager.create(new Epic("эпик", "описание"));
+        taskManager.lastId = ArrayIdMap.MAX_ID + 1;
+
+        SubTask orphan = new SubTask("подзадача", "описание", Status.DONE, 0, Duration.ZERO, null, created);
+        assertThrows(IllegalStateException.class, () -> taskManager.create(orphan));
+        assertTrue(taskManager.getSubTasks().isEmpty());
+        assertEquals(0, taskManager.getEpicById(created.getId()).getSubTasksCount());
+        assertEquals(Status.NEW, taskManager.getEpicById(created.getId()).getStatus());
+        assertEquals(ArrayIdMap.MAX_ID + 1, taskManager.lastId);
+    }
+
+    @Test
+    void shouldRejectBatchThatDoesNotFitIntoIds() {
+        InMemoryTaskManager taskManager = createTaskManager();
+        taskManager.lastId = ArrayIdMap.MAX_ID;
+        Batch batch = new Batch()
+                .create(new Task("первая", "описание", Duration.ZERO, null))
+                .create(new Task("вторая", "описание", Duration.ZERO, null));
+
+        assertThrows(IllegalStateException.class, () -> taskManager.applyBatch(batch));
+        assertTrue(taskManager.getTasks().isEmpty());
+
+        Task last = taskManager.create(new Task("последняя", "описание", Duration.ZERO, null));
+        assertEquals(ArrayIdMap.MAX_ID, last.getId());
+    }
 }
@@ -0,0 +1,176 @@
+package manager;
+
+import exceptions.ManagerSaveException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.SubTask;
+import tasks.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static manager.FileBackedTaskManager.SCV_HEAD;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournaledTaskManagerTest extends TaskManagerTest<JournaledTaskManager> {
+    private static File file;
+    private static Path journal;
+
+    @BeforeEach
+    void init() throws IOException {
+        file = File.createTempFile("saveFile", ".csv");
+        journal = Path.of(file.getPath() + ".journal");
+    }
+
+    @Override
+    protected JournaledTaskManager createTaskManager() {
+        return new JournaledTaskManager(file);
+    }
+
+    @AfterEach
+    void clear() {
+        TestFiles.deleteWithSidecars(file);
+    }
+
+    @Test
+    void shouldAppendToJournalWithoutRewritingSnapshot() throws IOException {
+        JournaledTaskManager taskManager = createTaskManager();
+        taskManager.create(task);
+        taskManager.create(epic);
+        taskManager.create(subTask);
+        taskManager.clearTaskById(0);
+
+        assertEquals(0, Files.size(file.toPath()), "Снимок не должен переписываться");
+        assertEquals(4, Files.readAllLines(journal).size(), "Одна запись на изменение");
+    }
+
+    @Test
+    void shouldRestoreStateFromJournal() {
+        JournaledTaskManager taskManager = createTaskManager();
+        taskManager.create(task);
+        Epic savedEpic = taskManager.create(epic);
+        SubTask savedSubTask = taskManager.create(subTask);
+        taskManager.create(new Task("задача 2", "я задача 2", Duration.ofMinutes(10L), now.plusMinutes(120L)));
+        savedSubTask.setStatus(Status.DONE);
+        taskManager.update(savedSubTask);
+        taskManager.clearTaskById(0);
+        taskManager.close();
+
+        JournaledTaskManager restored = JournaledTaskManager.loadFromFile(file);
+        assertEquals(taskManager.getTasks(), restored.getTasks());
+        assertEquals(taskManager.getSubTasks(), restored.getSubTasks());
+        assertEquals(Status.DONE, restored.getEpicById(savedEpic.getId()).getStatus());
+        assertEquals(2, restored.getPrioritizedTasks().size());
+        assertEquals(4, restored.create(new Epic("эпик 2", "я эпик 2")).getId());
+        assertFalse(Files.exists(journal.resolveSibling(journal.getFileName() + ".old")));
+        restored.close();
+    }
+
+    @Test
+    void shouldRestoreMultilineDescriptionFromJournal() {
+        JournaledTaskManager taskManager = createTaskManager();
+        taskManager.create(new Task("Список, покупок", "молоко\nхлеб\n\"сыр\"", Duration.ofMinutes(10L), now));
+        taskManager.close();
+
+        JournaledTaskManager restored = JournaledTaskManager.loadFromFile(file);
+        assertEquals("Список, покупок", restored.getTaskById(0).getTitle());
+        assertEquals("молоко\nхлеб\n\"сыр\"", restored.getTaskById(0).getDescription());
+        restored.close();
+    }
+
+    @Test
+    void shouldCompactJournalIntoSnapshot() throws IOException {
+        JournaledTaskManager taskManager = new JournaledTaskManager(file, 3);
+        taskManager.create(task);
+        taskManager.create(epic);
+        taskManager.create(subTask);
+        taskManager.close();
+
+        assertTrue(Files.readString(file.toPath()).startsWith(SCV_HEAD));
+        assertEquals(4, Files.readAllLines(file.toPath()).size());
+        assertFalse(Files.exists(Path.of(file.getPath() + ".journal.old")));
+
+        JournaledTaskManager restored = JournaledTaskManager.loadFromFile(file);
+        assertEquals(1, restored.getTasks().size());
+        assertEquals(1, restored.getSubTasks().size());
+        restored.close();
+    }
+
+    @Test
+    void shouldDropTornLastRecord() throws IOException {
+        JournaledTaskManager taskManager = createTaskManager();
+        taskManager.create(task);
+        taskManager.create(epic);
+        taskManager.create(subTask);
+        taskManager.close();
+        byte[] data = Files.readAllBytes(journal);
+        Files.write(journal, Arrays.copyOf(data, data.length - 10));
+
+        JournaledTaskManager restored = new JournaledTaskManager(file, SaveFormat.CSV, 1000, false);
+        assertEquals(1, restored.getTasks().size());
+        assertEquals(1, restored.getEpics().size());
+        assertEquals(0, restored.getSubTasks().size());
+        restored.close();
+    }
+
+    @Test
+    void shouldCutTornRecordBeforeAppending() throws IOException {
+        Files.writeString(journal, "+,0,TASK,\"обрыв");
+
+        JournaledTaskManager restored = JournaledTaskManager.loadFromFile(file);
+        assertEquals(0, Files.size(journal));
+        restored.create(task);
+        restored.close();
+
+        JournaledTaskManager again = JournaledTaskManager.loadFromFile(file);
+        assertEquals(1, again.getTasks().size());
+        again.close();
+    }
+
+    @Test
+    void shouldOpenAfterCrashBetweenSnapshotAndOldJournalDelete() throws IOException {
+        JournaledTaskManager taskManager = createTaskManager();
+        taskManager.create(epic);
+        taskManager.close();
+        taskManager = createTaskManager();
+        taskManager.create(subTask);
+        taskManager.clearEpicById(0);
+        taskManager.close();
+        byte[] records = Files.readAllBytes(journal);
+        createTaskManager().close();
+        Files.write(Path.of(file.getPath() + ".journal.old"), records);
+
+        JournaledTaskManager restored = createTaskManager();
+        assertTrue(restored.getEpics().isEmpty());
+        assertTrue(restored.getSubTasks().isEmpty());
+        restored.close();
+    }
+
+    @Test
+    void shouldKeepOldJournalWhenSnapshotWriteFails() throws IOException {
+        JournaledTaskManager taskManager = new JournaledTaskManager(file, 2);
+        Path blocker = Files.createDirectory(Path.of(file.getPath() + ".tmp"));
+        taskManager.create(new Task("задача 1", "описание", Duration.ZERO, null));
+        taskManager.create(new Task("задача 2", "описание", Duration.ZERO, null));
+        taskManager.create(new Task("задача 3", "описание", Duration.ZERO, null));
+        assertThrows(ManagerSaveException.class,
+                () -> taskManager.create(new Task("задача 4", "описание", Duration.ZERO, null)));
+        taskManager.create(new Task("задача 5", "описание", Duration.ZERO, null));
+        assertThrows(ManagerSaveException.class, taskManager::close);
+        Files.delete(blocker);
+
+        JournaledTaskManager restored = JournaledTaskManager.loadFromFile(file);
+        assertEquals(5, restored.getTasks().size());
+        restored.close();
+    }
+}
@@ -0,0 +1,167 @@
+package manager;
+
+import exceptions.ManagerReadSaveFileException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.SubTask;
+import tasks.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedTaskManagerTest extends TaskManagerTest<MappedTaskManager> {
+    private File file;
+    private final List<MappedTaskManager> opened = new ArrayList<>();
+
+    @BeforeEach
+    void init() throws IOException {
+        file = File.createTempFile("mapped", ".slots");
+    }
+
+    @Override
+    protected MappedTaskManager createTaskManager() {
+        return open(1);
+    }
+
+    private MappedTaskManager open(int forceEvery) {
+        MappedTaskManager manager = new MappedTaskManager(file, forceEvery);
+        opened.add(manager);
+        return manager;
+    }
+
+    @AfterEach
+    void clear() {
+        opened.forEach(MappedTaskManager::close);
+        TestFiles.deleteWithSidecars(file);
+    }
+
+    @Test
+    @Override
+    void shouldReturnImmutableSnapshot() {
+        MappedTaskManager taskManager = createTaskManager();
+        taskManager.create(task);
+
+        Task check = taskManager.getTaskById(0);
+        assertNotSame(check, taskManager.getTaskById(0), "Задача читается из файла при каждом обращении");
+        assertEquals(check, taskManager.getTaskById(0));
+        assertThrows(UnsupportedOperationException.class, () -> check.setTitle("другая задача"));
+    }
+
+    @Test
+    void shouldRestoreAfterReopen() {
+        MappedTaskManager taskManager = open(MappedTaskManager.MANUAL_FORCE);
+        taskManager.create(task);
+        Epic savedEpic = taskManager.create(epic);
+        subTask = new SubTask("подзадача", "я подзадача", savedEpic, Duration.ofMinutes(30L), now.plusMinutes(30L));
+        SubTask savedSubTask = taskManager.create(subTask);
+        savedSubTask.setStatus(Status.DONE);
+        taskManager.update(savedSubTask);
+        taskManager.create(new Task("без времени", null, Duration.ZERO, null));
+        taskManager.clearTaskById(0);
+        taskManager.close();
+
+        MappedTaskManager restored = open(1);
+        assertNull(restored.getTaskById(0));
+        assertEquals(Status.DONE, restored.getEpicById(1).getStatus());
+        assertEquals(List.of(savedSubTask), restored.getEpicById(1).getSubTasks());
+        assertEquals(List.of(savedSubTask), restored.getPrioritizedTasks());
+        assertNull(restored.getTaskById(3).getDescription());
+        assertEquals(4, restored.create(new Task("новая", "задача", Duration.ZERO, null)).getId());
+    }
+
+    @Test
+    void shouldGrowBeyondInitialSize() {
+        MappedTaskManager taskManager = open(MappedTaskManager.MANUAL_FORCE);
+        for (int i = 0; i < 3000; i++) {
+            taskManager.create(new Task("задача " + i, "описание ".repeat(50), Duration.ZERO, null));
+        }
+        taskManager.close();
+
+        MappedTaskManager restored = open(1);
+        assertEquals(3000, restored.getTasks().size());
+        assertEquals("задача 2999", restored.getTaskById(2999).getTitle());
+    }
+
+    @Test
+    void shouldFallBackToPreviousVersionOfTornSlot() throws IOException {
+        MappedTaskManager taskManager = open(1);
+        Task saved = taskManager.create(task);
+        Task renamed = saved.copy();
+        renamed.setTitle("новое название");
+        taskManager.update(renamed);
+        taskManager.close();
+        corrupt(16 + 8);
+
+        MappedTaskManager restored = open(1);
+        assertEquals("задача", restored.getTaskById(0).getTitle());
+        renamed.setTitle("ещё одно название");
+        restored.update(renamed);
+        restored.close();
+
+        assertEquals("ещё одно название", open(1).getTaskById(0).getTitle());
+    }
+
+    @Test
+    void shouldDropSlotWithoutIntactVersions() throws IOException {
+        MappedTaskManager taskManager = open(1);
+        taskManager.create(task);
+        taskManager.create(new Task("вторая", "задача", Duration.ZERO, null));
+        taskManager.close();
+        corrupt(16 + MappedTaskStore.RECORD_SIZE + 8);
+
+        MappedTaskManager restored = open(1);
+        assertNull(restored.getTaskById(0));
+        assertEquals(List.of(1), restored.getTasks().stream().map(Task::getId).toList());
+        assertEquals(List.of(), restored.getPrioritizedTasks());
+    }
+
+    @Test
+    void shouldDropSubTasksOfEpicDeletedBeforeCrash() throws IOException {
+        MappedTaskManager taskManager = open(MappedTaskManager.MANUAL_FORCE);
+        Epic savedEpic = taskManager.create(epic);
+        taskManager.create(new SubTask("подзадача", "я подзадача", savedEpic, Duration.ofMinutes(30L), now));
+        taskManager.force();
+        byte[] before = Files.readAllBytes(file.toPath());
+        taskManager.clearEpicById(0);
+        taskManager.close();
+        byte[] after = Files.readAllBytes(file.toPath());
+        System.arraycopy(after, 16, before, 16, MappedTaskStore.SLOT_SIZE);
+        Files.write(file.toPath(), before);
+
+        MappedTaskManager restored = open(1);
+        assertTrue(restored.getEpics().isEmpty());
+        assertTrue(restored.getSubTasks().isEmpty());
+        assertTrue(restored.getPrioritizedTasks().isEmpty());
+        assertEquals(2, restored.create(new Task("новая", "задача", Duration.ZERO, null)).getId());
+    }
+
+    private void corrupt(long position) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(position);
+            int value = raf.read();
+            raf.seek(position);
+            raf.write(value ^ 0xFF);
+        }
+    }
+
+    @Test
+    void shouldRejectForeignFile() throws IOException {
+        Files.writeString(file.toPath(), "id,type,name,status,description,duration,startTime,endTime,epic\n");
+
+        assertThrows(ManagerReadSaveFileException.class, () -> new MappedTaskManager(file));
+    }
+}
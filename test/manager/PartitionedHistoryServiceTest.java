@@ -0,0 +1,95 @@
+package manager;
+
+import history.HistoryManager;
+import history.PartitionedHistoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PartitionedHistoryServiceTest {
+
+    private InMemoryTaskManager taskManager;
+    private PartitionedHistoryService history;
+    private final List<Task> created = new ArrayList<>();
+
+    @BeforeEach
+    void initHistory() {
+        taskManager = new InMemoryTaskManager();
+        history = Managers.getUserHistory(taskManager, 3);
+        created.clear();
+        for (int i = 0; i < 5; i++) {
+            created.add(taskManager.create(new Task("задача" + i, "описание", Duration.ZERO, null)));
+        }
+    }
+
+    @Test
+    void shouldKeepSeparateHistoriesPerUser() {
+        history.add("анна", created.get(0));
+        history.add("анна", created.get(1));
+        history.add("борис", created.get(2));
+
+        assertEquals(List.of(created.get(1), created.get(0)), history.getLast("анна", 10));
+        assertEquals(List.of(created.get(2)), history.getLast("борис", 10));
+        assertEquals(List.of(), history.getLast("вера", 10));
+    }
+
+    @Test
+    void shouldEvictOldestAndMoveRepeatedViews() {
+        for (int i = 0; i < 4; i++) {
+            history.add("анна", created.get(i));
+        }
+        history.add("анна", created.get(1));
+
+        assertEquals(List.of(created.get(1), created.get(3), created.get(2)), history.getLast("анна", 10));
+        assertEquals(List.of(created.get(1)), history.getLast("анна", 1));
+    }
+
+    @Test
+    void shouldSkipDeletedTasks() {
+        history.add("анна", created.get(0));
+        history.add("анна", created.get(1));
+        taskManager.clearTaskById(created.get(1).getId());
+
+        assertEquals(List.of(created.get(0)), history.getLast("анна", 10));
+    }
+
+    @Test
+    void shouldExposeUserHistoryAsHistoryManager() {
+        HistoryManager anna = history.forUser("анна");
+        anna.add(created.get(0));
+        anna.add(created.get(1));
+        anna.remove(created.get(0).getId());
+
+        assertEquals(List.of(created.get(1)), anna.getHistory());
+    }
+
+    @Test
+    void shouldRecordViewsConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int user = 0; user < 100; user++) {
+            String userId = "user" + user;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    history.add(userId, created.get(i % created.size()));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(100, history.getUsersCount());
+        assertEquals(List.of(created.get(4), created.get(3), created.get(2)), history.getLast("user7", 10));
+    }
+}
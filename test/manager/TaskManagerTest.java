@@ -1,5 +1,6 @@
 package manager;
 
+import exceptions.ManagerBatchException;
 import exceptions.ManagerTimeCrossingException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,12 +11,15 @@ import tasks.Task;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 abstract class TaskManagerTest<T extends TaskManager> {
@@ -153,6 +157,47 @@ abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(epic2, taskManager.getEpicById(1));
     }
 
+    @Test
+    void shouldRemoveDeletedTasksFromHistory() {
+        T taskManager = createTaskManager();
+        Task savedTask = taskManager.create(task);
+        Epic savedEpic = taskManager.create(epic);
+        SubTask savedSubTask = taskManager.create(subTask);
+        Epic epic2 = taskManager.create(new Epic("эпик2", "описание2"));
+        taskManager.getTaskById(savedTask.getId());
+        taskManager.getSubTaskById(savedSubTask.getId());
+        taskManager.getEpicById(savedEpic.getId());
+        taskManager.getEpicById(epic2.getId());
+
+        taskManager.clearTaskById(savedTask.getId());
+        assertEquals(List.of(savedSubTask.getId(), savedEpic.getId(), epic2.getId()), historyIds(taskManager));
+
+        taskManager.clearEpicById(savedEpic.getId());
+        assertEquals(List.of(epic2.getId()), historyIds(taskManager));
+    }
+
+    @Test
+    void shouldRemoveClearedTasksFromHistory() {
+        T taskManager = createTaskManager();
+        Task savedTask = taskManager.create(task);
+        Epic savedEpic = taskManager.create(epic);
+        SubTask savedSubTask = taskManager.create(subTask);
+        taskManager.getTaskById(savedTask.getId());
+        taskManager.getSubTaskById(savedSubTask.getId());
+        taskManager.getEpicById(savedEpic.getId());
+
+        taskManager.clearSubTasks();
+        assertEquals(List.of(savedTask.getId(), savedEpic.getId()), historyIds(taskManager));
+
+        taskManager.clearTasks();
+        taskManager.clearEpics();
+        assertEquals(List.of(), taskManager.getHistory());
+    }
+
+    private static List<Integer> historyIds(TaskManager taskManager) {
+        return taskManager.getHistory().stream().map(Task::getId).toList();
+    }
+
     @Test
     void shouldCreateTask() {
         T taskManager = createTaskManager();
@@ -234,13 +279,224 @@ abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(Status.NEW, check.getStatus());
     }
 
+    @Test
+    void shouldGetPagesById() {
+        T taskManager = createTaskManager();
+        taskManager.create(epic);
+        for (int i = 0; i < 5; i++) {
+            taskManager.create(new Task("задача" + i, "описание", Duration.ZERO, null));
+            taskManager.create(new SubTask("подзадача" + i, "описание", epic, Duration.ZERO, null));
+        }
+
+        List<Task> first = taskManager.getTasksPage(-1, 2);
+        assertEquals(List.of(1, 3), first.stream().map(Task::getId).toList());
+        List<Task> second = taskManager.getTasksPage(first.getLast().getId(), 10);
+        assertEquals(List.of(5, 7, 9), second.stream().map(Task::getId).toList());
+        assertEquals(List.of(2, 4), taskManager.getSubTasksPage(-1, 2).stream().map(Task::getId).toList());
+        assertEquals(1, taskManager.getEpicsPage(-1, 10).size());
+        assertEquals(5, taskManager.streamSubTasks().count());
+    }
+
+    @Test
+    void shouldGetPrioritizedTasksPage() {
+        T taskManager = createTaskManager();
+        for (int i = 0; i < 5; i++) {
+            taskManager.create(new Task("задача" + i, "описание", Duration.ofMinutes(30L), now.plusHours(i)));
+        }
+
+        List<Task> first = taskManager.getPrioritizedTasks(now, 2);
+        assertEquals(List.of(0, 1), first.stream().map(Task::getId).toList());
+        List<Task> second = taskManager.getPrioritizedTasksAfter(first.getLast().getStartTime(),
+                first.getLast().getEndTime(), first.getLast().getId(), 2);
+        assertEquals(List.of(2, 3), second.stream().map(Task::getId).toList());
+        assertEquals(taskManager.getPrioritizedTasks(), taskManager.streamPrioritizedTasks().toList());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getPrioritizedTasks(now, -1));
+    }
+
+    @Test
+    void shouldKeepPrioritizedCursorWhenLastTaskChanges() {
+        T taskManager = createTaskManager();
+        for (int i = 0; i < 4; i++) {
+            taskManager.create(new Task("задача" + i, "описание", Duration.ofMinutes(30L), now.plusHours(i)));
+        }
+        Task last = taskManager.getPrioritizedTasks(now, 2).getLast();
+
+        taskManager.clearTaskById(last.getId());
+        assertEquals(List.of(2, 3), taskManager.getPrioritizedTasksAfter(last.getStartTime(), last.getEndTime(),
+                last.getId(), 2).stream().map(Task::getId).toList());
+
+        taskManager.update(new Task("задача0", "описание", Status.NEW, 0, Duration.ofMinutes(30L), now.plusHours(10L)));
+        taskManager.update(new Task("задача2", "описание", Status.NEW, 2, Duration.ofMinutes(30L), now.plusMinutes(90L)));
+        assertEquals(List.of(2, 3, 0), taskManager.getPrioritizedTasksAfter(last.getStartTime(), last.getEndTime(),
+                last.getId(), 5).stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void shouldPagePastTasksStartingAtSameMoment() {
+        T taskManager = createTaskManager();
+        taskManager.create(new Task("веха 1", "описание", Duration.ZERO, now));
+        taskManager.create(new Task("веха 2", "описание", Duration.ZERO, now));
+        taskManager.create(new Task("задача", "описание", Duration.ofMinutes(30L), now));
+
+        List<Integer> ids = new ArrayList<>();
+        List<Task> page = taskManager.getPrioritizedTasks(now, 1);
+        while (!page.isEmpty()) {
+            ids.add(page.getFirst().getId());
+            Task last = page.getLast();
+            page = taskManager.getPrioritizedTasksAfter(last.getStartTime(), last.getEndTime(), last.getId(), 1);
+        }
+        assertEquals(List.of(0, 1, 2), ids);
+    }
+
+    @Test
+    void shouldFindTasksByStatus() {
+        T taskManager = createTaskManager();
+        taskManager.create(task);
+        taskManager.create(epic);
+        taskManager.create(subTask);
+        assertEquals(List.of(task), taskManager.findTasksByStatus(Status.NEW));
+
+        Task doneTask = taskManager.getTaskById(task.getId()).copy();
+        doneTask.setStatus(Status.DONE);
+        taskManager.update(doneTask);
+        SubTask doneSubTask = taskManager.getSubTaskById(subTask.getId()).copy();
+        doneSubTask.setStatus(Status.DONE);
+        taskManager.update(doneSubTask);
+
+        assertEquals(List.of(), taskManager.findTasksByStatus(Status.NEW));
+        assertEquals(List.of(doneTask), taskManager.findTasksByStatus(Status.DONE));
+        assertEquals(List.of(doneSubTask), taskManager.findSubTasksByStatus(Status.DONE));
+        assertEquals(List.of(epic), taskManager.findEpicsByStatus(Status.DONE));
+
+        taskManager.clearSubTaskById(subTask.getId());
+        assertEquals(List.of(), taskManager.findSubTasksByStatus(Status.DONE));
+        assertEquals(List.of(epic), taskManager.findEpicsByStatus(Status.NEW));
+        taskManager.clearTasks();
+        assertEquals(List.of(), taskManager.findTasksByStatus(Status.DONE));
+    }
+
+    @Test
+    void shouldFindByTitlePrefix() {
+        T taskManager = createTaskManager();
+        taskManager.create(new Task("Отчёт за май", "описание", Duration.ofMinutes(30L), now));
+        taskManager.create(epic);
+        taskManager.create(new Task("отчёт за апрель", "описание", Duration.ofMinutes(30L), now.plusHours(1)));
+        taskManager.create(new SubTask("Отчёт в налоговую", "описание", epic, Duration.ofMinutes(30L), now.plusHours(2)));
+        taskManager.create(new Task("Релиз", "описание", Duration.ofMinutes(30L), now.plusHours(3)));
+
+        assertEquals(List.of(3, 2, 0), taskManager.findByTitlePrefix("ОТЧЁТ", 10).stream().map(Task::getId).toList());
+        assertEquals(List.of(3, 2), taskManager.findByTitlePrefix("отчёт", 2).stream().map(Task::getId).toList());
+        assertEquals(List.of(1), taskManager.findByTitlePrefix("эп", 10).stream().map(Task::getId).toList());
+
+        Task renamed = taskManager.getTaskById(4).copy();
+        renamed.setTitle("Отчёт о релизе");
+        taskManager.update(renamed);
+        taskManager.clearTaskById(0);
+
+        assertEquals(List.of(3, 2, 4), taskManager.findByTitlePrefix("отчёт ", 10).stream().map(Task::getId).toList());
+        assertEquals(List.of(), taskManager.findByTitlePrefix("рел", 10));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.findByTitlePrefix("отчёт", -1));
+    }
+
+    @Test
+    void shouldSearchByWords() {
+        T taskManager = createTaskManager();
+        taskManager.create(new Task("Отчёт за май", "Сдать в бухгалтерию до 5-го", Duration.ofMinutes(30L), now));
+        taskManager.create(epic);
+        taskManager.create(new SubTask("Релиз 2.0", "отчет для клиента", epic, Duration.ofMinutes(30L), now.plusHours(1)));
+
+        assertEquals(List.of(0, 2), taskManager.search("ОТЧЕТ", 10).stream().map(Task::getId).toList());
+        assertEquals(List.of(0), taskManager.search("отчёт бухгалтерию", 10).stream().map(Task::getId).toList());
+        assertEquals(List.of(0, 1), taskManager.search("май OR эпик", 10).stream().map(Task::getId).toList());
+        assertEquals(List.of(0), taskManager.search("отчёт", 1).stream().map(Task::getId).toList());
+        assertEquals(List.of(), taskManager.search("отчёт квартал", 10));
+
+        Task renamed = taskManager.getTaskById(0).copy();
+        renamed.setTitle("Счёт за май");
+        renamed.setDescription("оплатить");
+        taskManager.update(renamed);
+        taskManager.clearSubTaskById(2);
+
+        assertEquals(List.of(), taskManager.search("отчёт", 10));
+        assertEquals(List.of(0), taskManager.search("счет оплатить", 10).stream().map(Task::getId).toList());
+        taskManager.clearTasks();
+        assertEquals(List.of(), taskManager.search("счёт", 10));
+        assertEquals(List.of(1), taskManager.search("эпик", 10).stream().map(Task::getId).toList());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.search("эпик", -1));
+    }
+
+    @Test
+    void shouldFindFreeSlotAndBusyIntervals() {
+        T taskManager = createTaskManager();
+        taskManager.create(task);
+        taskManager.create(epic);
+        taskManager.create(subTask);
+        taskManager.create(new Task("после перерыва", "описание", Duration.ofMinutes(30L), now.plusMinutes(90L)));
+        LocalDateTime start = now.withNano(0);
+
+        assertEquals(start.plusMinutes(60L), taskManager.nextFreeSlot(Duration.ofMinutes(30L), now));
+        assertEquals(start.plusMinutes(120L), taskManager.nextFreeSlot(Duration.ofMinutes(45L), now.plusMinutes(10L)));
+        assertEquals(List.of(new TimeSlot(start, start.plusMinutes(60L)), new TimeSlot(start.plusMinutes(90L), now.plusMinutes(100L))),
+                taskManager.busyIntervals(now.minusHours(1L), now.plusMinutes(100L)));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.nextFreeSlot(Duration.ofMinutes(-1L), now));
+    }
+
+    @Test
+    void shouldReturnImmutableSnapshot() {
+        T taskManager = createTaskManager();
+        taskManager.create(task);
+
+        Task check = taskManager.getTaskById(0);
+        assertSame(check, taskManager.getTaskById(0));
+        assertThrows(UnsupportedOperationException.class, () -> check.setTitle("другая задача"));
+
+        Task changed = check.copy();
+        changed.setTitle("другая задача");
+        taskManager.update(changed);
+        assertEquals("задача", check.getTitle());
+        assertEquals("другая задача", taskManager.getTaskById(0).getTitle());
+    }
+
+    @Test
+    void shouldNotChangeEarlierEpicSnapshots() {
+        T taskManager = createTaskManager();
+        Epic created = taskManager.create(epic);
+        Epic before = taskManager.getEpicById(created.getId());
+        taskManager.create(subTask);
+
+        assertEquals(0, before.getSubTasksCount());
+        assertEquals(0, created.getSubTasksCount());
+        assertEquals(1, taskManager.getEpicById(created.getId()).getSubTasksCount());
+
+        SubTask outside = new SubTask("чужая", "не через менеджер", Status.DONE, 100, Duration.ZERO, null, created);
+        created.addSubTask(outside);
+        Epic stored = taskManager.getEpicById(created.getId());
+        assertEquals(1, stored.getSubTasksCount());
+        assertEquals(Status.NEW, stored.getStatus());
+    }
+
+    @Test
+    void shouldKeepSubTasksAfterEpicUpdate() {
+        T taskManager = createTaskManager();
+        taskManager.create(epic);
+        taskManager.create(subTask);
+
+        Epic changed = new Epic("новый эпик", "новое описание");
+        changed.setId(0);
+        taskManager.update(changed);
+        Epic check = taskManager.getEpicById(0);
+        assertEquals("новый эпик", check.getTitle());
+        assertEquals(1, check.getSubTasksCount());
+    }
+
     @Test
     void shouldRemoveDeletedSubtaskFromEpic() {
         T taskManager = createTaskManager();
         Epic savedEpic = taskManager.create(epic);
         SubTask savedSubTask = taskManager.create(subTask);
 
-        assertEquals(savedSubTask, savedEpic.getSubTasks().getFirst(), "В эпике не сохранилась подзадача");
+        assertEquals(savedSubTask, taskManager.getEpicById(savedEpic.getId()).getSubTasks().getFirst(),
+                "В эпике не сохранилась подзадача");
 
         taskManager.clearSubTaskById(savedSubTask.getId());
 
@@ -343,4 +599,109 @@ abstract class TaskManagerTest<T extends TaskManager> {
         assertThrows(ManagerTimeCrossingException.class, () -> taskManager.create(task4), "Пересечение в середине недопустимо");
         assertThrows(ManagerTimeCrossingException.class, () -> taskManager.create(task5), "Полное пересечение недопустимо");
     }
+
+    @Test
+    void shouldGetCrossingTasks() {
+        T taskManager = createTaskManager();
+        Task task1 = taskManager.create(new Task("задача 1", "я задача 1", Duration.ofMinutes(30L), now));
+        Task task2 = taskManager.create(new Task("задача 2", "я задача 2", Duration.ofMinutes(30L), now.plusMinutes(30L)));
+        taskManager.create(new Task("задача 3", "я задача 3", Duration.ofMinutes(30L), now.plusMinutes(90L)));
+
+        assertEquals(List.of(task1, task2), taskManager.getCrossingTasks(now.plusMinutes(10L), now.plusMinutes(40L)));
+        assertEquals(List.of(task2), taskManager.getCrossingTasks(now.plusMinutes(30L), now.plusMinutes(90L)));
+        assertEquals(List.of(), taskManager.getCrossingTasks(now.plusMinutes(60L), now.plusMinutes(90L)));
+    }
+
+    @Test
+    void shouldKeepTaskInScheduleIfUpdateCrosses() {
+        T taskManager = createTaskManager();
+        Task task1 = taskManager.create(new Task("задача 1", "я задача 1", Duration.ofMinutes(30L), now));
+        taskManager.create(new Task("задача 2", "я задача 2", Duration.ofMinutes(30L), now.plusMinutes(30L)));
+        Task moved = new Task(task1.getTitle(), task1.getDescription(), Status.NEW, task1.getId(), Duration.ofMinutes(30L), now.plusMinutes(40L));
+
+        assertThrows(ManagerTimeCrossingException.class, () -> taskManager.update(moved));
+        assertEquals(2, taskManager.getPrioritizedTasks().size());
+        assertThrows(ManagerTimeCrossingException.class, () -> taskManager.create(new Task("задача 3", "я задача 3", Duration.ofMinutes(10L), now.plusMinutes(10L))));
+    }
+
+    @Test
+    void shouldMoveTaskInSchedule() {
+        T taskManager = createTaskManager();
+        Task task1 = taskManager.create(new Task("задача 1", "я задача 1", Duration.ofMinutes(30L), now));
+        Task moved = new Task(task1.getTitle(), task1.getDescription(), Status.NEW, task1.getId(), Duration.ofMinutes(30L), now.plusMinutes(60L));
+        taskManager.update(moved);
+
+        assertEquals(1, taskManager.getPrioritizedTasks().size());
+        assertEquals(now.plusMinutes(60L).withNano(0), taskManager.getPrioritizedTasks().getFirst().getStartTime());
+        assertDoesNotThrow(() -> taskManager.create(new Task("задача 2", "я задача 2", Duration.ofMinutes(30L), now)));
+    }
+
+    @Test
+    void shouldApplyMixedBatch() {
+        T taskManager = createTaskManager();
+        Batch batch = new Batch()
+                .create(task)
+                .create(epic)
+                .create(subTask)
+                .create(new SubTask("подзадача 2", "я подзадача 2", epic, Duration.ofMinutes(30L), now.plusMinutes(60L)));
+
+        List<Task> created = taskManager.applyBatch(batch);
+
+        assertEquals(4, created.size());
+        assertEquals(List.of(0, 1, 2, 3), created.stream().map(Task::getId).toList());
+        assertEquals(2, taskManager.getSubTasksByEpic(taskManager.getEpicById(1)).size());
+        assertEquals(Duration.ofMinutes(60L), taskManager.getEpicById(1).getDuration());
+        assertEquals(3, taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void shouldRejectWholeBatchIfItemsCross() {
+        T taskManager = createTaskManager();
+        List<Task> batch = List.of(
+                new Task("задача 1", "я задача 1", Duration.ofMinutes(30L), now),
+                new Task("задача 2", "я задача 2", Duration.ofMinutes(30L), now.plusMinutes(60L)),
+                new Task("задача 3", "я задача 3", Duration.ofMinutes(30L), now.plusMinutes(15L)));
+
+        assertThrows(ManagerTimeCrossingException.class, () -> taskManager.createAll(batch));
+        assertEquals(0, taskManager.getTasks().size());
+        assertEquals(0, taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void shouldRejectWholeBatchIfItemCrossesSchedule() {
+        T taskManager = createTaskManager();
+        taskManager.create(task);
+        Batch batch = new Batch()
+                .create(new Task("задача 2", "я задача 2", Duration.ofMinutes(30L), now.plusMinutes(60L)))
+                .create(new Task("задача 3", "я задача 3", Duration.ofMinutes(30L), now.plusMinutes(10L)));
+
+        assertThrows(ManagerTimeCrossingException.class, () -> taskManager.applyBatch(batch));
+        assertEquals(1, taskManager.getTasks().size());
+    }
+
+    @Test
+    void shouldSwapSlotsInOneBatch() {
+        T taskManager = createTaskManager();
+        Task first = taskManager.create(new Task("задача 1", "я задача 1", Duration.ofMinutes(30L), now));
+        Task second = taskManager.create(new Task("задача 2", "я задача 2", Duration.ofMinutes(30L), now.plusMinutes(30L)));
+
+        taskManager.updateAll(List.of(
+                new Task(first.getTitle(), first.getDescription(), Status.DONE, first.getId(), Duration.ofMinutes(30L), second.getStartTime()),
+                new Task(second.getTitle(), second.getDescription(), Status.DONE, second.getId(), Duration.ofMinutes(30L), first.getStartTime())));
+
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        assertEquals(List.of(second, first), prioritized);
+        assertEquals(Status.DONE, taskManager.getTaskById(first.getId()).getStatus());
+    }
+
+    @Test
+    void shouldRejectBatchWithMissingTask() {
+        T taskManager = createTaskManager();
+        Batch batch = new Batch()
+                .create(task)
+                .update(new Task("задача", "нет такой", Status.NEW, 42, Duration.ofMinutes(30L), null));
+
+        assertThrows(ManagerBatchException.class, () -> taskManager.applyBatch(batch));
+        assertEquals(0, taskManager.getTasks().size());
+    }
 }
@@ -0,0 +1,99 @@
+package manager;
+
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.SubTask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskStoreTest {
+
+    private final TaskStore store = new TaskStore();
+    private final IdMap<Task> tasks = store.view(TaskType.TASK);
+    private final IdMap<Epic> epics = store.view(TaskType.EPIC);
+    private final IdMap<SubTask> subTasks = store.view(TaskType.SUBTASK);
+
+    private Task task(int id) {
+        return new Task("задача " + id, "описание", Status.NEW, id, Duration.ZERO, null);
+    }
+
+    @Test
+    void shouldSeparateTypesInOneStore() {
+        Epic epic = new Epic("эпик", "описание");
+        epic.setId(1);
+        tasks.put(0, task(0));
+        epics.put(1, epic);
+        subTasks.put(2, new SubTask("подзадача", "описание", Status.NEW, 2, Duration.ZERO, null, epic));
+        tasks.put(40, task(40));
+
+        assertEquals(2, tasks.size());
+        assertNull(tasks.get(1));
+        assertFalse(epics.containsKey(0));
+        assertTrue(subTasks.containsKey(2));
+        assertEquals(List.of(0, 40), List.copyOf(tasks.keySet()));
+        assertNull(tasks.remove(2));
+        assertEquals(1, subTasks.size());
+    }
+
+    @Test
+    void shouldClearOnlyOneType() {
+        Epic epic = new Epic("эпик", "описание");
+        epic.setId(1);
+        tasks.put(0, task(0));
+        epics.put(1, epic);
+
+        tasks.clear();
+        assertTrue(tasks.isEmpty());
+        assertEquals(epic, epics.get(1));
+    }
+
+    @Test
+    void shouldRemoveThroughIterator() {
+        for (int id = 0; id < 5; id++) {
+            tasks.put(id, task(id));
+        }
+        Iterator<Task> it = tasks.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().getId() % 2 == 0) {
+                it.remove();
+            }
+        }
+
+        assertEquals(List.of(1, 3), List.copyOf(tasks.keySet()));
+    }
+
+    @Test
+    void shouldRejectTaskUnderForeignId() {
+        assertThrows(IllegalArgumentException.class, () -> tasks.put(1, task(0)));
+        assertThrows(IllegalArgumentException.class, () -> tasks.put(-1, task(-1)));
+    }
+
+    @Test
+    void shouldRejectOtherTypeUnderSameId() {
+        Epic epic = new Epic("эпик", "описание");
+        epic.setId(0);
+        tasks.put(0, task(0));
+
+        assertThrows(IllegalArgumentException.class, () -> epics.put(0, epic));
+        assertEquals(task(0), tasks.get(0));
+        assertEquals(0, epics.size());
+    }
+
+    @Test
+    void shouldRejectIdAboveLimit() {
+        int id = ArrayIdMap.MAX_ID + 1;
+        assertThrows(IllegalArgumentException.class, () -> tasks.put(id, task(id)));
+        assertTrue(tasks.isEmpty());
+    }
+}
@@ -0,0 +1,22 @@
+package manager;
+
+import java.io.File;
+
+final class TestFiles {
+    private TestFiles() {
+    }
+
+    /**
+     * Удаляет файл сохранения вместе со всеми файлами рядом с ним, имена которых начинаются с его имени:
+     * контрольными суммами, резервными копиями, журналами, индексами и временными файлами.
+     */
+    static void deleteWithSidecars(File file) {
+        File[] siblings = file.getAbsoluteFile().getParentFile()
+                .listFiles((dir, name) -> name.startsWith(file.getName()));
+        if (siblings != null) {
+            for (File sibling : siblings) {
+                sibling.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package manager;
+
+import org.junit.jupiter.api.Test;
+import tasks.Status;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextIndexTest {
+
+    private Task task(int id, String title, String description) {
+        return new Task(title, description, Status.NEW, id, Duration.ZERO, null);
+    }
+
+    @Test
+    void shouldSplitCyrillicAndLatinWords() {
+        assertEquals(List.of("елка", "http", "api", "v2", "еще", "раз"), TextIndex.tokenize("Ёлка: HTTP-API v2, ещё раз!"));
+        assertEquals(List.of(), TextIndex.tokenize(null));
+    }
+
+    @Test
+    void shouldRoundTripThroughBytes() throws IOException {
+        TextIndex index = new TextIndex();
+        index.build(List.of(task(0, "Отчёт за май", "бухгалтерия"), task(300, "Отчёт за июнь", null)),
+                List.of(), List.of(task(70_000, "отчет", "для клиента")));
+
+        TextIndex loaded = new TextIndex();
+        loaded.load(index.toBytes(), 0);
+
+        assertTrue(loaded.isEnabled());
+        assertArrayEquals(new int[]{0, 300, 70_000}, loaded.search("отчёт", 10));
+        assertArrayEquals(new int[]{0, 70_000}, loaded.search("бухгалтерия OR клиента", 10));
+        assertThrows(IOException.class, () -> new TextIndex().load(new byte[]{1, 2, 3}, 0));
+    }
+
+    @Test
+    void shouldRemoveOnlyClearedTypeAndStayEnabled() {
+        IdMap<Task> tasks = new TaskStore().view(TaskType.TASK);
+        tasks.put(0, task(0, "отчёт за май", null));
+        tasks.put(2, task(2, "релиз", null));
+        TextIndex index = new TextIndex();
+        index.build(tasks.values(), List.of(task(1, "отчёт", "квартал")), List.of());
+
+        index.removeAll(tasks);
+
+        assertTrue(index.isEnabled());
+        assertArrayEquals(new int[]{1}, index.search("отчёт", 10));
+        assertArrayEquals(new int[0], index.search("релиз OR май", 10));
+    }
+}
@@ -0,0 +1,122 @@
+package manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.SubTask;
+import tasks.Task;
+import tasks.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeSlotIndexTest {
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    private TimeSlotIndex index;
+
+    @BeforeEach
+    void initIndex() {
+        index = new TimeSlotIndex();
+    }
+
+    private Task task(int id, long startMinutes, long durationMinutes) {
+        return new Task("задача " + id, "описание", Status.NEW, id, Duration.ofMinutes(durationMinutes), now.plusMinutes(startMinutes));
+    }
+
+    @Test
+    void shouldDetectCrossingWithNeighbours() {
+        index.add(task(0, 0, 30));
+        index.add(task(1, 60, 30));
+
+        assertTrue(index.isCrossing(task(2, 20, 20)), "Пересечение в конце первой задачи");
+        assertTrue(index.isCrossing(task(2, 50, 20)), "Пересечение в начале второй задачи");
+        assertTrue(index.isCrossing(task(2, -10, 200)), "Полное покрытие");
+        assertFalse(index.isCrossing(task(2, 30, 30)), "Стык интервалов допустим");
+        assertFalse(index.isCrossing(new Task("без времени", "описание", Duration.ofMinutes(10L), null)));
+    }
+
+    @Test
+    void shouldAllowZeroDurationOnBorders() {
+        index.add(task(0, 0, 30));
+        index.add(task(1, 30, 0));
+
+        assertFalse(index.isCrossing(task(2, 30, 30)));
+        assertTrue(index.isCrossing(task(2, 10, 0)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void shouldRemoveById() {
+        Task task = task(0, 0, 30);
+        index.add(task);
+        index.add(task(0, 60, 30));
+
+        assertEquals(1, index.size(), "Повторное добавление заменяет задачу");
+        assertEquals(now.plusMinutes(60L), index.remove(0).getStartTime());
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    void shouldGetCrossingInStartOrder() {
+        Task first = task(0, 0, 30);
+        Task second = task(1, 30, 30);
+        Task third = task(2, 90, 30);
+        index.add(third);
+        index.add(first);
+        index.add(second);
+
+        assertEquals(List.of(first, second), index.getCrossing(now.plusMinutes(10L), now.plusMinutes(40L)));
+        assertEquals(List.of(second, third), index.getCrossing(now.plusMinutes(30L), now.plusMinutes(100L)));
+        assertEquals(List.of(), index.getCrossing(now.plusMinutes(60L), now.plusMinutes(90L)));
+    }
+
+    @Test
+    void shouldMergeAndClipBusyIntervals() {
+        index.add(task(0, 0, 30));
+        index.add(task(1, 30, 30));
+        index.add(task(2, 70, 0));
+        index.add(task(3, 90, 30));
+
+        assertEquals(List.of(new TimeSlot(now.plusMinutes(10L), now.plusMinutes(60L)),
+                        new TimeSlot(now.plusMinutes(90L), now.plusMinutes(100L))),
+                index.getBusy(now.plusMinutes(10L), now.plusMinutes(100L)));
+        assertEquals(List.of(), index.getBusy(now.plusMinutes(60L), now.plusMinutes(90L)));
+    }
+
+    @Test
+    void shouldFindFirstGapLongEnough() {
+        index.add(task(0, 0, 30));
+        index.add(task(1, 40, 30));
+        index.add(task(2, 90, 0));
+        index.add(task(3, 120, 30));
+
+        assertEquals(now.plusMinutes(30L), index.findFree(Duration.ofMinutes(10L), now.plusMinutes(10L)));
+        assertEquals(now.plusMinutes(70L), index.findFree(Duration.ofMinutes(20L), now.plusMinutes(10L)));
+        assertEquals(now.plusMinutes(90L), index.findFree(Duration.ofMinutes(30L), now.plusMinutes(10L)));
+        assertEquals(now.plusMinutes(150L), index.findFree(Duration.ofMinutes(60L), now));
+        assertEquals(now.plusMinutes(-60L), index.findFree(Duration.ofMinutes(60L), now.plusMinutes(-60L)));
+    }
+
+    @Test
+    void shouldRemoveAllOfType() {
+        Epic epic = new Epic("эпик", "описание");
+        Task task = task(0, 0, 30);
+        SubTask subTask = new SubTask("подзадача", "описание", Status.NEW, 1, Duration.ofMinutes(30L), now.plusMinutes(30L), epic);
+        index.add(task);
+        index.add(subTask);
+
+        index.removeAll(TaskType.SUBTASK);
+        assertEquals(List.of(task), index.toList());
+        assertFalse(index.isCrossing(task(2, 40, 10)));
+
+        index.removeAll(TaskType.TASK);
+        assertTrue(index.isEmpty());
+    }
+}
@@ -6,8 +6,11 @@ import org.junit.jupiter.api.Test;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class EpicTest {
 
@@ -56,4 +59,68 @@ class EpicTest {
         epic.addSubTask(subTaskNew);
         assertEquals(Status.IN_PROGRESS, epic.status);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRecalculateStatusOnUpdateAndRemove() {
+        epic.addSubTask(subTaskDone);
+        epic.addSubTask(subTaskNew);
+        SubTask nowDone = new SubTask("задача", "я подзадача", Status.DONE, 2, Duration.ofMinutes(60L), now, epic);
+
+        epic.updateSubTask(nowDone);
+        assertEquals(Status.DONE, epic.status);
+
+        epic.clearSubTask(subTaskDone);
+        epic.clearSubTask(nowDone);
+        assertEquals(Status.NEW, epic.status);
+        assertEquals(0, epic.getSubTasksCount());
+    }
+
+    @Test
+    void shouldAggregateTimesOfSubtasks() {
+        SubTask first = new SubTask("задача", "первая", Status.NEW, 5, Duration.ofMinutes(30L), now, epic);
+        SubTask last = new SubTask("задача", "последняя", Status.NEW, 6, Duration.ofMinutes(60L), now.plusHours(2L), epic);
+        SubTask withoutTime = new SubTask("задача", "без времени", Status.NEW, 7, Duration.ofMinutes(15L), null, epic);
+
+        epic.addSubTask(last);
+        epic.addSubTask(withoutTime);
+        epic.addSubTask(first);
+        assertEquals(Duration.ofMinutes(105L), epic.getDuration());
+        assertEquals(first.getStartTime(), epic.getStartTime());
+        assertEquals(last.getEndTime(), epic.getEndTime());
+
+        epic.clearSubTask(first);
+        assertEquals(Duration.ofMinutes(75L), epic.getDuration());
+        assertEquals(last.getStartTime(), epic.getStartTime());
+
+        epic.clearSubTasks();
+        assertEquals(Duration.ZERO, epic.getDuration());
+        assertNull(epic.getStartTime());
+        assertNull(epic.getEndTime());
+    }
+
+    @Test
+    void shouldNotBreakCountersIfSubtaskChangedOutside() {
+        epic.addSubTask(subTaskNew);
+        subTaskNew.setStatus(Status.DONE);
+        epic.clearSubTask(subTaskNew);
+        epic.addSubTask(subTaskInProgress);
+
+        assertEquals(Status.IN_PROGRESS, epic.status);
+        assertEquals(1, epic.getSubTasksCount());
+        assertTrue(epic.hasSubTask(subTaskInProgress.getId()));
+    }
+
+    @Test
+    void shouldNotShareSubtasksWithCopy() {
+        epic.addSubTask(subTaskNew);
+        Epic copy = epic.copy();
+        copy.addSubTask(subTaskDone);
+        epic.clearSubTask(subTaskNew);
+
+        assertEquals(0, epic.getSubTasksCount());
+        assertEquals(Status.NEW, epic.status);
+        assertEquals(2, copy.getSubTasksCount());
+        assertEquals(Status.IN_PROGRESS, copy.status);
+        assertEquals(List.of(subTaskNew, subTaskDone), copy.getSubTasks());
+    }
+}